@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.aop;
+
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records controller metrics, available at {@code /actuator/metrics/<name>}. Both are tagged with
+ * the controller class and method:
+ *
+ * <ul>
+ *   <li>{@code controller.requests}: how long controller methods take, also tagged with the
+ *       outcome (success or error) and the exception thrown (or none); the count of the error
+ *       outcome is the error count. Percentiles are configured by the
+ *       management.metrics.distribution properties.
+ *   <li>{@code controller.requests.active}: controller methods in progress, and for how long
+ * </ul>
+ */
+@Component
+public class ControllerMetrics {
+  @Autowired private MeterRegistry meterRegistry;
+
+  /** A controller method call, e.g. {@code ProceedingJoinPoint::proceed}. */
+  @FunctionalInterface
+  public interface Invocation {
+    Object proceed() throws Throwable;
+  }
+
+  /**
+   * Calls a controller method and records how long it took and whether it threw.
+   *
+   * @param controller simple name of the controller class
+   * @param method name of the controller method
+   * @param invocation calls the controller method
+   * @return what the controller method returned
+   * @throws Throwable whatever the controller method threw
+   */
+  public Object record(String controller, String method, Invocation invocation)
+      throws Throwable {
+    LongTaskTimer.Sample active =
+        LongTaskTimer.builder("controller.requests.active")
+            .description("Controller methods in progress")
+            .tag("controller", controller)
+            .tag("method", method)
+            .register(meterRegistry)
+            .start();
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String exception = "none";
+    try {
+      return invocation.proceed();
+    } catch (Throwable t) {
+      // anonymous exception classes have no simple name
+      exception = t.getClass().getSimpleName().isEmpty()
+          ? t.getClass().getName()
+          : t.getClass().getSimpleName();
+      throw t;
+    } finally {
+      active.stop();
+      sample.stop(
+          Timer.builder("controller.requests")
+              .description("How long controller methods take")
+              .tag("controller", controller)
+              .tag("method", method)
+              .tag("outcome", exception.equals("none") ? "success" : "error")
+              .tag("exception", exception)
+              .register(meterRegistry));
+    }
+  }
+}
@@ -2,9 +2,10 @@ package edu.ucsb.cs156.example.aop;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -14,9 +15,9 @@ import java.util.Arrays;
 import java.util.Optional;
 
 /**
- * This class is an Aspect that logs all invocations of controller methods that are annotated
+ * This class is an Aspect that logs and times all invocations of controller methods that are annotated
  * with {@code @RequestMapping}, {@code @GetMapping}, {@code @PostMapping}, {@code @PutMapping}, {@code @DeleteMapping},
- * or {@code @PatchMapping}.
+ * or {@code @PatchMapping}. The timings are recorded by {@link ControllerMetrics}.
  * 
  * For more information on Aspect Oriented Programming (AOP)
  * and AspectJ, including what a {@code JoinPoint} is, 
@@ -41,22 +42,28 @@ public class LoggingAspect {
   private ArrayList<String> stoplist = new ArrayList<String>(Arrays.asList(
       "edu.ucsb.cs156.example.controllers.FrontendProxyController"));
 
+  @Autowired
+  private ControllerMetrics controllerMetrics;
+
   /**
-   * This method is called before any controller method that is annotated with
+   * This method is called around any controller method that is annotated with
    * {@code @RequestMapping}, {@code @GetMapping}, {@code @PostMapping}, {@code @PutMapping}, {@code @DeleteMapping},
-   * or {@code @PatchMapping}.
+   * or {@code @PatchMapping}. It logs the call and records its timing.
    * @param joinPoint the join point (injected by Spring framework)
+   * @return what the controller method returned
+   * @throws Throwable whatever the controller method threw
    */
-  @Before(pointcut)
-  public void logControllers(JoinPoint joinPoint) {
+  @Around(pointcut)
+  public Object logControllers(ProceedingJoinPoint joinPoint) throws Throwable {
+    String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
+    if (stoplist.contains(declaringTypeName)) {
+      return joinPoint.proceed();
+    }
     getCurrentHttpRequest().ifPresent(
-        request -> {
-          String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
-          if (!stoplist.contains(declaringTypeName)) {
-            log.info("===== %s %s handled by %s in %s".formatted(request.getMethod(), request.getRequestURI(),
-                joinPoint.getSignature().getName(), declaringTypeName));
-          }
-        });
+        request -> log.info("===== %s %s handled by %s in %s".formatted(request.getMethod(), request.getRequestURI(),
+            joinPoint.getSignature().getName(), declaringTypeName)));
+    return controllerMetrics.record(joinPoint.getSignature().getDeclaringType().getSimpleName(),
+        joinPoint.getSignature().getName(), joinPoint::proceed);
   }
 
   /**
@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * The `JobExecutorConfig` class configures the executor that runs jobs launched through
+ * `JobService`.
+ *
+ * At most {@code app.jobs.executor.maxConcurrency} jobs run at once, and at most {@code
+ * app.jobs.executor.queueCapacity} more wait for a free thread. Jobs launched beyond that are
+ * rejected, and `JobService` records them with status "rejected" instead of starting new threads.
+ */
+@Configuration
+public class JobExecutorConfig {
+
+  /**
+   * The executor used by {@code @Async("jobExecutor")} in `JobService`.
+   *
+   * With {@code app.jobs.executor.virtualThreads=true} jobs run on virtual threads, which makes a
+   * much higher maxConcurrency affordable for jobs that spend most of their time waiting on I/O.
+   *
+   * @param maxConcurrency maximum number of jobs running at once
+   * @param queueCapacity maximum number of jobs waiting for a thread
+   * @param virtualThreads whether to run jobs on virtual threads
+   * @return the job executor
+   */
+  @Bean(name = "jobExecutor")
+  public ThreadPoolTaskExecutor jobExecutor(
+      @Value("${app.jobs.executor.maxConcurrency:4}") int maxConcurrency,
+      @Value("${app.jobs.executor.queueCapacity:100}") int queueCapacity,
+      @Value("${app.jobs.executor.virtualThreads:false}") boolean virtualThreads) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(maxConcurrency);
+    executor.setMaxPoolSize(maxConcurrency);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("job-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    if (virtualThreads) {
+      executor.setThreadFactory(Thread.ofVirtual().name("job-", 0).factory());
+    }
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+
+  /**
+   * The executor `JobLogStreamer` sends log lines to clients on. A send blocks until the client
+   * has taken it, so it runs here rather than on the scheduler thread that reads the lines.
+   *
+   * @param streamThreads maximum number of clients being sent lines at once
+   * @return the log stream executor
+   */
+  @Bean(name = "logStreamExecutor")
+  public ThreadPoolTaskExecutor logStreamExecutor(
+      @Value("${app.jobs.log.streamThreads:4}") int streamThreads) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(streamThreads);
+    executor.setMaxPoolSize(streamThreads);
+    executor.setThreadNamePrefix("job-log-stream-");
+    return executor;
+  }
+}
@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * The `JpaAuditingConfig` class turns on JPA auditing, which fills in fields annotated with
+ * {@code @CreatedDate} and {@code @LastModifiedDate} (e.g. on `Job`) when an entity is saved.
+ *
+ * It lives in its own class rather than on `ExampleApplication` so that test slices such as
+ * {@code @WebMvcTest}, which have no JPA infrastructure, do not pick it up.
+ */
+@Configuration
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+public class JpaAuditingConfig {
+
+  /**
+   * Provides the current time as a ZonedDateTime, which is the type the audited fields use.
+   *
+   * @return the date time provider
+   */
+  @Bean
+  public DateTimeProvider auditingDateTimeProvider() {
+    return () -> Optional.of(ZonedDateTime.now());
+  }
+}
@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * The `SchedulerConfig` class configures the schedulers that run {@code @Scheduled} methods.
+ *
+ * Most scheduled tasks (polling the job queue, firing job schedules, purging old jobs, flushing
+ * and streaming job logs) share the "taskScheduler" pool of {@code app.scheduling.poolSize}
+ * threads. Job leases are renewed on their own "leaseScheduler" thread, so a slow purge or a
+ * blocked task cannot delay a renewal until other servers consider the jobs abandoned and run
+ * them again.
+ */
+@Configuration
+public class SchedulerConfig {
+
+  /**
+   * The scheduler used by {@code @Scheduled} methods that do not name one.
+   *
+   * @param poolSize number of scheduled tasks that can run at once
+   * @return the task scheduler
+   */
+  @Bean(name = "taskScheduler")
+  public ThreadPoolTaskScheduler taskScheduler(
+      @Value("${app.scheduling.poolSize:4}") int poolSize) {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(poolSize);
+    scheduler.setThreadNamePrefix("scheduling-");
+    return scheduler;
+  }
+
+  /**
+   * The scheduler that runs only {@code JobService.maintainLeases}.
+   *
+   * @return the lease scheduler
+   */
+  @Bean(name = "leaseScheduler")
+  public ThreadPoolTaskScheduler leaseScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(1);
+    scheduler.setThreadNamePrefix("job-lease-");
+    return scheduler;
+  }
+}
@@ -1,7 +1,11 @@
 package edu.ucsb.cs156.example.config;
 
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.UserChangedEvent;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AuthAuditLogger;
+import edu.ucsb.cs156.example.services.TtlCache;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -40,11 +45,11 @@ import static org.springframework.security.web.util.matcher.AntPathRequestMatche
 
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -62,9 +67,41 @@ public class SecurityConfig {
   @Value("${app.admin.emails}")
   private final List<String> adminEmails = new ArrayList<>();
 
+  @Value("${app.admin.cacheTtlMs:60000}")
+  private long storedAdminCacheTtlMs;
+
+  @Value("${app.admin.cacheSize:10000}")
+  private int storedAdminCacheSize;
+
   @Autowired
   UserRepository userRepository;
 
+  @Autowired
+  AuthAuditLogger authAuditLogger;
+
+  // adminEmails as a hash set, so each login checks it in constant time
+  private Set<String> adminEmailSet;
+
+  // whether the stored user with an email is an admin
+  private TtlCache<String, Boolean> storedAdminCache;
+
+  @PostConstruct
+  void createAdminLookups() {
+    adminEmailSet = Set.copyOf(adminEmails);
+    storedAdminCache = new TtlCache<>(Duration.ofMillis(storedAdminCacheTtlMs), storedAdminCacheSize);
+  }
+
+  /**
+   * This method drops the cached admin status of a user after they have been changed, so their
+   * next login sees the change.
+   * 
+   * @param event names the user that changed
+   */
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    storedAdminCache.invalidate(event.getEmail());
+  }
+
   /**
    * The `filterChain` method in this Java code configures various security
    * settings for an HTTP request,
@@ -85,7 +122,10 @@ public class SecurityConfig {
             .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
             .csrfTokenRequestHandler(new SpaCsrfTokenRequestHandler()))
         .addFilterAfter(new CsrfCookieFilter(), BasicAuthenticationFilter.class)
-        .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+        // actuator endpoints show job, request and JVM internals, so only admins may see them
+        .authorizeHttpRequests(auth -> auth
+            .requestMatchers(antMatcher("/actuator/**")).hasRole("ADMIN")
+            .anyRequest().permitAll())
         .logout(logout -> logout.logoutRequestMatcher(new AntPathRequestMatcher("/logout")).logoutSuccessUrl("/"));
     return http.build();
   }
@@ -103,18 +143,17 @@ public class SecurityConfig {
   private GrantedAuthoritiesMapper userAuthoritiesMapper() {
     return (authorities) -> {
       Set<GrantedAuthority> mappedAuthorities = new HashSet<>();
-      log.info("********** authorities={}", authorities);
+      String email = null;
 
-      authorities.forEach(authority -> {
-        log.info("********** authority={}", authority);
+      for (GrantedAuthority authority : authorities) {
         mappedAuthorities.add(authority);
         if (authority instanceof OAuth2UserAuthority oauth2UserAuthority) {
           Map<String, Object> userAttributes = oauth2UserAuthority.getAttributes();
-          log.info("********** userAttributes={}", userAttributes);
 
           mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_USER"));
 
-          String email = (String) userAttributes.get("email");
+          email = (String) userAttributes.get("email");
+          authAuditLogger.attributes(email, userAttributes);
           if (getAdmin(email)) {
             mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
           }
@@ -123,9 +162,8 @@ public class SecurityConfig {
             mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_MEMBER"));
           }
         }
-
-      });
-      log.info("********** mappedAuthorities={}", mappedAuthorities);
+      }
+      authAuditLogger.login(email, mappedAuthorities);
       return mappedAuthorities;
     };
   }
@@ -133,17 +171,18 @@ public class SecurityConfig {
   /**
    * This method checks if the given email belongs to an admin user either from a
    * predefined
-   * list or by querying the user repository.
+   * list or by querying the user repository. The answer from the user repository
+   * is cached for app.admin.cacheTtlMs, or until a UserChangedEvent for the user.
    * 
    * @param email email address of the user
    * @return whether the user with the given email is an admin
    */
   public boolean getAdmin(String email) {
-    if (adminEmails.contains(email)) {
+    if (adminEmailSet.contains(email)) {
       return true;
     }
-    Optional<User> u = userRepository.findByEmail(email);
-    return u.isPresent() && u.get().getAdmin();
+    return storedAdminCache.get(email,
+        key -> userRepository.findByEmail(key).map(User::getAdmin).orElse(false));
   }
 }
 
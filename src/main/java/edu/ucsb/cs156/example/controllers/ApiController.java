@@ -4,13 +4,26 @@ import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.repositories.StreamingRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * This is an abstract class that provides common functionality for all API controllers.
@@ -38,6 +51,53 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
+  /**
+   * The most rows one page of a keyset listing may hold.
+   */
+  protected static final int MAX_KEYSET_LIMIT = 100;
+
+  /**
+   * This method returns the page request for one page of a keyset listing.
+   * @param limit the number of rows asked for; kept between 1 and MAX_KEYSET_LIMIT
+   * @return the page request
+   */
+  protected Pageable keysetRequest(int limit) {
+    return PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_KEYSET_LIMIT));
+  }
+
+  /**
+   * This method turns the rows following a cursor into a page with the cursor of the next page.
+   * @param slice the rows, in key order
+   * @param keyOf returns the key of a row
+   * @param <T> the type of the rows
+   * @return the page; its next is null when there are no more rows
+   */
+  protected <T> KeysetPage<T> keysetPage(Slice<T> slice, Function<T, ?> keyOf) {
+    List<T> content = slice.getContent();
+    String next =
+        slice.hasNext() ? String.valueOf(keyOf.apply(content.get(content.size() - 1))) : null;
+    return new KeysetPage<>(content, next);
+  }
+
+  /**
+   * This method returns a response that streams every entity of a repository to the client as
+   * newline-delimited JSON, as a file download.
+   * @param exportService the service that writes the entities
+   * @param repository the repository to export
+   * @param filename the name of the download, without extension
+   * @return the response
+   */
+  protected ResponseEntity<StreamingResponseBody> ndjsonExport(
+      NdjsonExportService exportService, StreamingRepository<?, ?> repository, String filename) {
+    StreamingResponseBody body = out -> exportService.export(repository, out);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(filename + ".ndjson").build().toString())
+        .body(body);
+  }
+
   /**
    * This method handles the EntityNotFoundException.
    * @param e the exception
@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.ArticleRepository;
 
@@ -15,6 +17,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -41,6 +45,9 @@ public class ArticlesController extends ApiController {
     @Autowired
     ArticleRepository articleRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * List all Articles
      * 
@@ -54,6 +61,38 @@ public class ArticlesController extends ApiController {
         return articles;
     }
 
+    /**
+     * List articles a page at a time, in id order
+     * 
+     * @param limit the number of articles per page
+     * @param after the next of the previous page, or 0 for the first page
+     * @return a page of articles and the cursor of the next page
+     */
+    @Operation(summary= "List articles a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<Article> allArticlesKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        return keysetPage(
+                articleRepository.findByIdGreaterThanOrderByIdAsc(after, keysetRequest(limit)),
+                Article::getId);
+    }
+
+    /**
+     * Export all articles as newline-delimited JSON, one per line
+     * 
+     * @return the articles, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all articles as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportArticles() {
+        return ndjsonExport(ndjsonExportService, articleRepository, "articles");
+    }
+
     /**
      * Get a single date by id
      * 
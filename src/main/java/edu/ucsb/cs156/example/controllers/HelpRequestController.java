@@ -5,6 +5,8 @@ import java.time.LocalDateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -17,6 +19,8 @@ import org.springframework.web.bind.annotation.RestController;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
@@ -38,6 +42,9 @@ public class HelpRequestController extends ApiController {
     @Autowired
     HelpRequestRepository helpRequestRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * List all help requests
      * 
@@ -50,6 +57,38 @@ public class HelpRequestController extends ApiController {
         Iterable<HelpRequest> helpRequests = helpRequestRepository.findAll();
         return helpRequests;
     }
+
+    /**
+     * List help requests a page at a time, in id order
+     * 
+     * @param limit the number of help requests per page
+     * @param after the next of the previous page, or 0 for the first page
+     * @return a page of help requests and the cursor of the next page
+     */
+    @Operation(summary= "List help requests a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<HelpRequest> allHelpRequestsKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        return keysetPage(
+                helpRequestRepository.findByIdGreaterThanOrderByIdAsc(after, keysetRequest(limit)),
+                HelpRequest::getId);
+    }
+
+    /**
+     * Export all help requests as newline-delimited JSON, one per line
+     * 
+     * @return the help requests, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all help requests as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportHelpRequest() {
+        return ndjsonExport(ndjsonExportService, helpRequestRepository, "helprequest");
+    }
     
     /**
      * Create a new help request
@@ -0,0 +1,191 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.repositories.JobSchedulesRepository;
+import edu.ucsb.cs156.example.services.jobs.JobScheduler;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/** This is a REST controller for schedules that run jobs periodically. */
+@Tag(name = "Job Schedules")
+@RequestMapping("/api/jobs/schedules")
+@RestController
+@Slf4j
+public class JobSchedulesController extends ApiController {
+  // only jobs in this package can be scheduled
+  private static final String JOBS_PACKAGE = "edu.ucsb.cs156.example.jobs.";
+
+  // the unique constraint on job_schedules.name, from the JobSchedules changelog
+  private static final String NAME_CONSTRAINT = "JOB_SCHEDULES_NAME_UK";
+
+  @Autowired private JobSchedulesRepository jobSchedulesRepository;
+
+  @Autowired private JobScheduler jobScheduler;
+
+  @Autowired private JobService jobService;
+
+  @Operation(summary = "List all job schedules")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/all")
+  public Iterable<JobSchedule> allSchedules() {
+    return jobSchedulesRepository.findAll();
+  }
+
+  @Operation(summary = "List job schedules a page at a time, in id order")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping(value = "/all", params = "limit")
+  public KeysetPage<JobSchedule> allSchedulesKeyset(
+      @Parameter(name = "limit", description = "how many per page (1 to 100)") @RequestParam
+          int limit,
+      @Parameter(name = "after", description = "next of the previous page, if any")
+          @RequestParam(defaultValue = "0")
+          long after) {
+    return keysetPage(
+        jobSchedulesRepository.findByIdGreaterThanOrderByIdAsc(after, keysetRequest(limit)),
+        JobSchedule::getId);
+  }
+
+  @Operation(summary = "Get a single job schedule")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("")
+  public JobSchedule getById(@Parameter(name = "id") @RequestParam Long id) {
+    return jobSchedulesRepository
+        .findById(id)
+        .orElseThrow(() -> new EntityNotFoundException(JobSchedule.class, id));
+  }
+
+  @Operation(summary = "Create a job schedule")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/post")
+  public JobSchedule postSchedule(
+      @Parameter(name = "name") @RequestParam String name,
+      @Parameter(name = "job", description = "name of a class in the jobs package, e.g. TestJob")
+          @RequestParam
+          String job,
+      @Parameter(name = "payload", description = "the job's fields as JSON")
+          @RequestParam(defaultValue = "{}")
+          String payload,
+      @Parameter(
+              name = "cron",
+              description = "second minute hour day-of-month month day-of-week, e.g. 0 0 3 * * *")
+          @RequestParam
+          String cron,
+      @Parameter(name = "misfirePolicy", description = "RUN_ONCE or SKIP")
+          @RequestParam(defaultValue = JobScheduler.RUN_ONCE)
+          String misfirePolicy,
+      @Parameter(name = "enabled") @RequestParam(defaultValue = "true") boolean enabled) {
+
+    JobSchedule schedule =
+        JobSchedule.builder()
+            .name(name)
+            .jobClass(JOBS_PACKAGE + job)
+            .payload(payload)
+            .cron(cron)
+            .misfirePolicy(misfirePolicy)
+            .enabled(enabled)
+            .build();
+    validate(schedule);
+    schedule.setNextRunAt(jobScheduler.nextRun(cron, ZonedDateTime.now()));
+    return save(schedule);
+  }
+
+  @Operation(summary = "Update a job schedule")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PutMapping("")
+  public JobSchedule updateSchedule(
+      @Parameter(name = "id") @RequestParam Long id, @RequestBody JobSchedule incoming) {
+    JobSchedule schedule = getById(id);
+
+    schedule.setName(incoming.getName());
+    schedule.setPayload(incoming.getPayload());
+    schedule.setCron(incoming.getCron());
+    schedule.setMisfirePolicy(incoming.getMisfirePolicy());
+    schedule.setEnabled(incoming.isEnabled());
+    validate(schedule);
+    schedule.setNextRunAt(jobScheduler.nextRun(schedule.getCron(), ZonedDateTime.now()));
+
+    return save(schedule);
+  }
+
+  @Operation(summary = "Delete a job schedule; jobs it already queued are kept")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @DeleteMapping("")
+  public Object deleteSchedule(@Parameter(name = "id") @RequestParam Long id) {
+    JobSchedule schedule = getById(id);
+    jobSchedulesRepository.delete(schedule);
+    return genericMessage("JobSchedule with id %s deleted".formatted(id));
+  }
+
+  @Operation(summary = "Queue a run of a scheduled job now, without changing its schedule")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/run")
+  public Job runNow(@Parameter(name = "id") @RequestParam Long id) {
+    JobSchedule schedule = getById(id);
+    return jobService.enqueue(schedule.getJobClass(), schedule.getPayload());
+  }
+
+  private JobSchedule save(JobSchedule schedule) {
+    if (jobSchedulesRepository.existsByNameAndIdNot(schedule.getName(), schedule.getId())) {
+      throw nameTaken(schedule);
+    }
+    try {
+      return jobSchedulesRepository.save(schedule);
+    } catch (DataIntegrityViolationException e) {
+      // another request took the name after the check
+      String cause = String.valueOf(e.getMostSpecificCause().getMessage());
+      if (cause.toUpperCase().contains(NAME_CONSTRAINT)) {
+        throw nameTaken(schedule);
+      }
+      throw e;
+    }
+  }
+
+  private ResponseStatusException nameTaken(JobSchedule schedule) {
+    return new ResponseStatusException(
+        HttpStatus.CONFLICT,
+        "A job schedule named %s already exists".formatted(schedule.getName()));
+  }
+
+  private void validate(JobSchedule schedule) {
+    if (schedule.getName() == null || schedule.getName().isBlank()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "name must not be blank");
+    }
+    if (!List.of(JobScheduler.RUN_ONCE, JobScheduler.SKIP).contains(schedule.getMisfirePolicy())) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "misfirePolicy must be RUN_ONCE or SKIP");
+    }
+    try {
+      jobScheduler.nextRun(schedule.getCron(), ZonedDateTime.now());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Invalid cron expression: " + e.getMessage());
+    }
+    try {
+      jobService.loadJob(schedule.getJobClass(), schedule.getPayload());
+    } catch (Exception e) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Invalid job or payload: " + e.getMessage());
+    }
+  }
+}
@@ -5,22 +5,39 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.entities.Job;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobLogRange;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.jobs.JobLogStreamer;
 import edu.ucsb.cs156.example.services.jobs.JobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Jobs")
 @RequestMapping("/api/jobs")
@@ -29,8 +46,14 @@ import org.springframework.web.bind.annotation.RestController;
 public class JobsController extends ApiController {
   @Autowired private JobsRepository jobsRepository;
 
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
   @Autowired private JobService jobService;
 
+  @Autowired private JobLogStreamer jobLogStreamer;
+
+  @Autowired private NdjsonExportService ndjsonExportService;
+
   @Autowired ObjectMapper mapper;
 
   @Operation(summary = "List all jobs")
@@ -41,11 +64,64 @@ public class JobsController extends ApiController {
     return jobs;
   }
 
+  @Operation(summary = "List jobs a page at a time, in id order")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping(value = "/all", params = "limit")
+  public KeysetPage<Job> allJobsKeyset(
+      @Parameter(name = "limit", description = "how many per page (1 to 100)") @RequestParam
+          int limit,
+      @Parameter(name = "after", description = "next of the previous page, if any")
+          @RequestParam(defaultValue = "0")
+          long after) {
+    return keysetPage(
+        jobsRepository.findByIdGreaterThanOrderByIdAsc(after, keysetRequest(limit)), Job::getId);
+  }
+
+  @Operation(summary = "Export all jobs, with their logs, as newline-delimited JSON")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportJobs() {
+    return ndjsonExport(ndjsonExportService, jobsRepository, "jobs");
+  }
+
+  @Operation(summary = "List jobs a page at a time, without their logs")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/paged")
+  public PagedModel<JobSummary> pagedJobs(
+      @Parameter(name = "page", description = "Page number, from 0")
+          @RequestParam(defaultValue = "0")
+          int page,
+      @Parameter(name = "size", description = "Jobs per page (1 to 100)")
+          @RequestParam(defaultValue = "20")
+          int size,
+      @Parameter(name = "status", description = "Only list jobs with one of these statuses")
+          @RequestParam(required = false)
+          List<String> status,
+      @Parameter(name = "direction", description = "Sort by createdAt: desc (default) or asc")
+          @RequestParam(defaultValue = "desc")
+          String direction) {
+
+    Sort.Direction sortDirection =
+        "asc".equalsIgnoreCase(direction) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    PageRequest pageRequest =
+        PageRequest.of(
+            Math.max(page, 0),
+            Math.min(Math.max(size, 1), 100),
+            Sort.by(sortDirection, "createdAt", "id"));
+
+    Page<JobSummary> jobs =
+        status == null || status.isEmpty()
+            ? jobsRepository.findAllProjectedBy(pageRequest)
+            : jobsRepository.findByStatusIn(status, pageRequest);
+    return new PagedModel<>(jobs);
+  }
+
   @Operation(summary = "Delete all job records")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @DeleteMapping("/all")
   public Map<String, String> deleteAllJobs() {
-    jobsRepository.deleteAll();
+    jobLogLinesRepository.deleteAllInBulk();
+    jobsRepository.deleteAllInBulk();
     return Map.of("message", "All jobs deleted");
   }
 
@@ -59,7 +135,17 @@ public class JobsController extends ApiController {
     Job job =
         jobsRepository.findById(id).orElseThrow(() -> new EntityNotFoundException(Job.class, id));
 
-    return job;
+    return jobService.withQueuePosition(job);
+  }
+
+  @Operation(summary = "Get the status and progress of a job, without its log")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/{id}/status")
+  public JobSummary getJobStatus(
+      @Parameter(name = "id", description = "ID of the job") @PathVariable Long id) {
+    return jobsRepository
+        .findProjectedById(id)
+        .orElseThrow(() -> new EntityNotFoundException(Job.class, id));
   }
 
   @Operation(summary = "Delete specific job record")
@@ -69,29 +155,87 @@ public class JobsController extends ApiController {
     if (!jobsRepository.existsById(id)) {
       return Map.of("message", String.format("Job with id %d not found", id));
     }
+    jobLogLinesRepository.deleteByJobId(id);
     jobsRepository.deleteById(id);
     return Map.of("message", String.format("Job with id %d deleted", id));
   }
 
+  @Operation(summary = "Cancel a running job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/cancel")
+  public Map<String, String> cancelJob(@Parameter(name = "id") @RequestParam Long id) {
+    if (!jobsRepository.existsById(id)) {
+      return Map.of("message", String.format("Job with id %d not found", id));
+    }
+    if (!jobService.cancelJob(id)) {
+      return Map.of("message", String.format("Job with id %d is not running", id));
+    }
+    return Map.of("message", String.format("Job with id %d is being cancelled", id));
+  }
+
   @Operation(summary = "Launch Test Job (click fail if you want to test exception handling)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @PostMapping("/launch/testjob")
   public Job launchTestJob(
       @Parameter(name = "fail") @RequestParam Boolean fail,
-      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs) {
-
+      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs,
+      @Parameter(name = "lane", description = "interactive (default) or batch")
+          @RequestParam(defaultValue = JobService.INTERACTIVE)
+          String lane) {
+
+    if (!JobService.LANES.contains(lane)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          String.format("Unknown lane %s; use one of %s", lane, JobService.LANES));
+    }
     TestJob testJob = TestJob.builder().fail(fail).sleepMs(sleepMs).build();
-    return jobService.runAsJob(testJob);
+    return jobService.runAsJob(testJob, lane);
   }
 
-
-  @Operation(summary = "Get long job logs")
+  @Operation(
+      summary =
+          "Get long job logs; use offset and limit, or tail, to get only some of the lines."
+              + " The X-Next-Offset header gives the offset to ask for next")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/logs/{id}")
-  public String getJobLogs(@Parameter(name = "id", description = "Job ID") @PathVariable Long id) {
-
-    return jobService.getJobLogs(id);
+  public ResponseEntity<String> getJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "offset", description = "Number of the first line to return (from 0)")
+          @RequestParam(defaultValue = "0")
+          long offset,
+      @Parameter(name = "limit", description = "Maximum number of lines to return (default all)")
+          @RequestParam(required = false)
+          Integer limit,
+      @Parameter(name = "tail", description = "Return only the last N lines")
+          @RequestParam(required = false)
+          Integer tail) {
+
+    JobLogRange range =
+        tail != null
+            ? jobService.getJobLogTail(id, tail)
+            : jobService.getJobLogRange(id, offset, limit);
+    return ResponseEntity.ok()
+        .header("X-Next-Offset", Long.toString(range.getNextOffset()))
+        .body(String.join("\n", range.getLines()));
   }
 
+  @Operation(summary = "Stream job log lines as they are written (Server-Sent Events)")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/logs/{id}/stream")
+  public SseEmitter streamJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "from", description = "Line number to start from (default 0)")
+          @RequestParam(required = false)
+          Long from,
+      @Parameter(hidden = true) @RequestHeader(value = "Last-Event-ID", required = false)
+          Long lastEventId) {
 
+    if (!jobsRepository.existsById(id)) {
+      throw new EntityNotFoundException(Job.class, id);
+    }
+
+    // a reconnecting EventSource sends the id of the last line it received
+    long fromLine = lastEventId != null ? lastEventId + 1 : (from != null ? from : 0L);
+    return jobLogStreamer.subscribe(id, fromLine);
+  }
 }
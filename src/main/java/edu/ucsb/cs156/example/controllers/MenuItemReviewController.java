@@ -1,17 +1,42 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.MenuItemRating;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.jobs.MenuItemReviewImportJob;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.MenuItemReviewFilter;
+import edu.ucsb.cs156.example.services.ImportUploadService;
+import edu.ucsb.cs156.example.services.MenuItemRatingService;
+import edu.ucsb.cs156.example.services.MenuItemReviewImportService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.jobs.JobService;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 
 /**
@@ -27,6 +52,24 @@ public class MenuItemReviewController extends ApiController {
     @Autowired
     MenuItemReviewRepository menuItemReviewRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
+    @Autowired
+    MenuItemReviewImportService menuItemReviewImportService;
+
+    @Autowired
+    ImportUploadService importUploadService;
+
+    @Autowired
+    JobService jobService;
+
+    @Autowired
+    MenuItemRatingService menuItemRatingService;
+
+    @Autowired
+    Validator validator;
+
     /**
      * List all menu item reviews
      * 
@@ -40,6 +83,85 @@ public class MenuItemReviewController extends ApiController {
         return reviews;
     }
 
+    /**
+     * List menu item reviews a page at a time, in id order
+     * 
+     * @param limit the number of menu item reviews per page
+     * @param after the next of the previous page, or 0 for the first page
+     * @return a page of menu item reviews and the cursor of the next page
+     */
+    @Operation(summary= "List menu item reviews a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<MenuItemReview> allReviewsKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        return keysetPage(
+                menuItemReviewRepository.findByIdGreaterThanOrderByIdAsc(
+                        after, keysetRequest(limit)),
+                MenuItemReview::getId);
+    }
+
+    /**
+     * Search menu item reviews a page at a time, in id order. Only the conditions given are applied.
+     * 
+     * @param itemId        only reviews of this menu item
+     * @param reviewerEmail only reviews by this reviewer
+     * @param minStars      only reviews with at least this many stars
+     * @param maxStars      only reviews with at most this many stars
+     * @param reviewedFrom  only reviews made at or after this time
+     * @param reviewedTo    only reviews made at or before this time
+     * @param limit         the number of menu item reviews per page
+     * @param after         the next of the previous page, or 0 for the first page
+     * @return a page of matching menu item reviews and the cursor of the next page
+     */
+    @Operation(summary= "Search menu item reviews a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/search")
+    public KeysetPage<MenuItemReview> searchReviews(
+            @Parameter(name="itemId") @RequestParam(required = false) Long itemId,
+            @Parameter(name="reviewerEmail") @RequestParam(required = false) String reviewerEmail,
+            @Parameter(name="minStars") @RequestParam(required = false) Integer minStars,
+            @Parameter(name="maxStars") @RequestParam(required = false) Integer maxStars,
+            @Parameter(name="reviewedFrom", description="date (in iso format, e.g. YYYY-mm-ddTHH:MM:SS)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime reviewedFrom,
+            @Parameter(name="reviewedTo", description="date (in iso format, e.g. YYYY-mm-ddTHH:MM:SS)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime reviewedTo,
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        MenuItemReviewFilter filter = MenuItemReviewFilter.builder()
+                .itemId(itemId)
+                .reviewerEmail(reviewerEmail)
+                .minStars(minStars)
+                .maxStars(maxStars)
+                .reviewedFrom(reviewedFrom)
+                .reviewedTo(reviewedTo)
+                .build();
+        Pageable page = keysetRequest(limit);
+
+        // one row more than the page holds tells whether there is a next page
+        List<MenuItemReview> rows = menuItemReviewRepository.findBy(
+                filter.toSpecification(after),
+                query -> query.sortBy(Sort.by("id")).limit(page.getPageSize() + 1).all());
+        boolean hasNext = rows.size() > page.getPageSize();
+        List<MenuItemReview> content = hasNext ? rows.subList(0, page.getPageSize()) : rows;
+        return keysetPage(new SliceImpl<>(content, page, hasNext), MenuItemReview::getId);
+    }
+
+    /**
+     * Export all menu item reviews as newline-delimited JSON, one per line
+     * 
+     * @return the menu item reviews, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all menu item reviews as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMenuItemReview() {
+        return ndjsonExport(ndjsonExportService, menuItemReviewRepository, "menuitemreview");
+    }
+
     /**
      * Get a single review by id
      * 
@@ -85,8 +207,80 @@ public class MenuItemReviewController extends ApiController {
                 .dateReviewed(dateReviewed)
                 .comments(comments)
                 .build();
+        rejectInvalid(review);
+
+        return menuItemRatingService.saveReview(review);
+    }
 
-        return menuItemReviewRepository.save(review);
+    /**
+     * Get the rating of a menu item, summed up from its reviews
+     * 
+     * @param itemId the id of the menu item
+     * @return the number of reviews, their total and average stars, and how many gave each of 1 to 5 stars
+     */
+    @Operation(summary = "Get the rating of a menu item, summed up from its reviews")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/rating")
+    public MenuItemRating getRating(
+            @Parameter(name = "itemId") @RequestParam long itemId) {
+        return menuItemRatingService.getRating(itemId);
+    }
+
+    /**
+     * Import reviews in bulk, as a job
+     * 
+     * @param file a .csv file with a header row, or a .json file holding an array of reviews
+     * @return the job doing the import; its log lists any invalid rows
+     * @throws IOException if the upload cannot be read or stored
+     */
+    @Operation(summary = "Import menu item reviews from a CSV file or a JSON array, as a job")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Job importReviews(
+            @Parameter(name = "file", description = "a .csv file whose header row names the columns itemId, reviewerEmail, stars, dateReviewed and comments, or a .json file holding an array of reviews")
+            @RequestParam("file") MultipartFile file) throws IOException {
+
+        String format = importFormat(file.getOriginalFilename());
+        // the file is stored on its own rather than in the job's payload
+        long uploadId;
+        try (InputStream content = file.getInputStream()) {
+            uploadId = importUploadService.store(file.getOriginalFilename(), content);
+        }
+
+        MenuItemReviewImportJob job = MenuItemReviewImportJob.builder()
+                .importService(menuItemReviewImportService)
+                .filename(file.getOriginalFilename())
+                .format(format)
+                .uploadId(uploadId)
+                .build();
+
+        Job queued = jobService.runAsJob(job, JobService.BATCH);
+        if ("rejected".equals(queued.getStatus())) {
+            importUploadService.discard(uploadId);
+        }
+        return queued;
+    }
+
+    // posted reviews are built from request parameters, so they are checked here rather than by @Valid
+    private void rejectInvalid(MenuItemReview review) {
+        String problems = validator.validate(review).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if (!problems.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, problems);
+        }
+    }
+
+    private String importFormat(String filename) {
+        String name = filename == null ? "" : filename.toLowerCase();
+        if (name.endsWith(".csv")) {
+            return MenuItemReviewImportService.CSV;
+        }
+        if (name.endsWith(".json")) {
+            return MenuItemReviewImportService.JSON;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Upload a .csv or .json file");
     }
 
     /**
@@ -112,8 +306,7 @@ public class MenuItemReviewController extends ApiController {
         review.setDateReviewed(incoming.getDateReviewed());
         review.setComments(incoming.getComments());
 
-        menuItemReviewRepository.save(review);
-        return review;
+        return menuItemRatingService.saveReview(review);
     }
 
     /**
@@ -130,7 +323,7 @@ public class MenuItemReviewController extends ApiController {
         MenuItemReview review = menuItemReviewRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
 
-        menuItemReviewRepository.delete(review);
+        menuItemRatingService.deleteReview(id);
         return genericMessage("MenuItemReview with id %s deleted".formatted(id));
     }
 }
\ No newline at end of file
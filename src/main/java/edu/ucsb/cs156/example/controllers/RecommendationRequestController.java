@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
@@ -15,6 +17,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -41,6 +45,9 @@ public class RecommendationRequestController extends ApiController {
     @Autowired
     RecommendationRequestRepository recommendationRequestRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * List all recommendation requests
      * 
@@ -54,6 +61,40 @@ public class RecommendationRequestController extends ApiController {
         return requests;
     }
 
+    /**
+     * List recommendation requests a page at a time, in id order
+     * 
+     * @param limit the number of recommendation requests per page
+     * @param after the next of the previous page, or 0 for the first page
+     * @return a page of recommendation requests and the cursor of the next page
+     */
+    @Operation(summary= "List recommendation requests a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<RecommendationRequest> allRecommendationRequestsKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        return keysetPage(
+                recommendationRequestRepository.findByIdGreaterThanOrderByIdAsc(
+                        after, keysetRequest(limit)),
+                RecommendationRequest::getId);
+    }
+
+    /**
+     * Export all recommendation requests as newline-delimited JSON, one per line
+     * 
+     * @return the recommendation requests, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all recommendation requests as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRecommendationRequest() {
+        return ndjsonExport(
+                ndjsonExportService, recommendationRequestRepository, "recommendationrequest");
+    }
+
     /**
      * Create a new request
      * 
@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,6 +12,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -33,6 +37,9 @@ public class RestaurantsController extends ApiController {
     @Autowired
     RestaurantRepository restaurantRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * This method returns a list of all restaurants.
      * @return a list of all restaurants
@@ -45,6 +52,38 @@ public class RestaurantsController extends ApiController {
         return restaurants;
     }
 
+    /**
+     * List restaurants a page at a time, in id order
+     * 
+     * @param limit the number of restaurants per page
+     * @param after the next of the previous page, or 0 for the first page
+     * @return a page of restaurants and the cursor of the next page
+     */
+    @Operation(summary= "List restaurants a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<Restaurant> allRestaurantsKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        return keysetPage(
+                restaurantRepository.findByIdGreaterThanOrderByIdAsc(after, keysetRequest(limit)),
+                Restaurant::getId);
+    }
+
+    /**
+     * Export all restaurants as newline-delimited JSON, one per line
+     * 
+     * @return the restaurants, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all restaurants as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRestaurants() {
+        return ndjsonExport(ndjsonExportService, restaurantRepository, "restaurants");
+    }
+
     /**
      * This method returns a single restaurant.
      * @param id id of the restaurant to get
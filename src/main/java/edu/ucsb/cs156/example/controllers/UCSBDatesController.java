@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
 
@@ -14,6 +16,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -40,6 +44,9 @@ public class UCSBDatesController extends ApiController {
     @Autowired
     UCSBDateRepository ucsbDateRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * List all UCSB dates
      * 
@@ -53,6 +60,38 @@ public class UCSBDatesController extends ApiController {
         return dates;
     }
 
+    /**
+     * List ucsb dates a page at a time, in id order
+     * 
+     * @param limit the number of ucsb dates per page
+     * @param after the next of the previous page, or 0 for the first page
+     * @return a page of ucsb dates and the cursor of the next page
+     */
+    @Operation(summary= "List ucsb dates a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDate> allUCSBDatesKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        return keysetPage(
+                ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(after, keysetRequest(limit)),
+                UCSBDate::getId);
+    }
+
+    /**
+     * Export all ucsb dates as newline-delimited JSON, one per line
+     * 
+     * @return the ucsb dates, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all ucsb dates as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUCSBDates() {
+        return ndjsonExport(ndjsonExportService, ucsbDateRepository, "ucsbdates");
+    }
+
     /**
      * Get a single date by id
      * 
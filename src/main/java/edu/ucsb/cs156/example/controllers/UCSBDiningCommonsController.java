@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
 
@@ -11,6 +13,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -35,6 +39,9 @@ public class UCSBDiningCommonsController extends ApiController {
     @Autowired
     UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * THis method returns a list of all ucsbdiningcommons.
      * @return a list of all ucsbdiningcommons
@@ -47,6 +54,39 @@ public class UCSBDiningCommonsController extends ApiController {
         return commons;
     }
 
+    /**
+     * List ucsb dining commons a page at a time, in code order
+     * 
+     * @param limit the number of ucsb dining commons per page
+     * @param after the next of the previous page, or empty for the first page
+     * @return a page of ucsb dining commons and the cursor of the next page
+     */
+    @Operation(summary= "List ucsb dining commons a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDiningCommons> allCommonsKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "") String after) {
+        return keysetPage(
+                ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(
+                        after, keysetRequest(limit)),
+                UCSBDiningCommons::getCode);
+    }
+
+    /**
+     * Export all ucsb dining commons as newline-delimited JSON, one per line
+     * 
+     * @return the ucsb dining commons, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all ucsb dining commons as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUCSBDiningCommons() {
+        return ndjsonExport(ndjsonExportService, ucsbDiningCommonsRepository, "ucsbdiningcommons");
+    }
+
     /**
      * This method returns a single diningcommons.
      * @param code code of the diningcommons
@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
 
@@ -16,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -41,6 +44,9 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
     @Autowired
     UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
  
     @Operation(summary= "List all ucsb dining commons menu items")
     @PreAuthorize("hasRole('ROLE_USER')")
@@ -50,6 +56,40 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
         return menuitem;
     }
 
+    /**
+     * List ucsb dining commons menu items a page at a time, in id order
+     * 
+     * @param limit the number of ucsb dining commons menu items per page
+     * @param after the next of the previous page, or 0 for the first page
+     * @return a page of ucsb dining commons menu items and the cursor of the next page
+     */
+    @Operation(summary= "List ucsb dining commons menu items a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDiningCommonsMenuItem> allItemKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        return keysetPage(
+                ucsbDiningCommonsMenuItemRepository.findByIdGreaterThanOrderByIdAsc(
+                        after, keysetRequest(limit)),
+                UCSBDiningCommonsMenuItem::getId);
+    }
+
+    /**
+     * Export all ucsb dining commons menu items as newline-delimited JSON, one per line
+     * 
+     * @return the ucsb dining commons menu items, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all ucsb dining commons menu items as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUCSBDiningCommonsMenuItem() {
+        return ndjsonExport(
+                ndjsonExportService, ucsbDiningCommonsMenuItemRepository, "ucsbdiningcommonsmenuitem");
+    }
+
 
     /**
      * Create a new UCSBDiningCommonsMenuItem
@@ -1,6 +1,8 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
 
@@ -11,6 +13,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -34,6 +38,9 @@ public class UCSBOrganizationController extends ApiController {
     @Autowired
     UCSBOrganizationRepository ucsbOrganizationsRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * This method returns a list of all ucsborganizations.
      * @return a list of all ucsborganizations
@@ -46,6 +53,39 @@ public class UCSBOrganizationController extends ApiController {
         return orgs;
     }
 
+    /**
+     * List ucsb organizations a page at a time, in orgCode order
+     * 
+     * @param limit the number of ucsb organizations per page
+     * @param after the next of the previous page, or empty for the first page
+     * @return a page of ucsb organizations and the cursor of the next page
+     */
+    @Operation(summary= "List ucsb organizations a page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBOrganization> allOrgsKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "") String after) {
+        return keysetPage(
+                ucsbOrganizationsRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(
+                        after, keysetRequest(limit)),
+                UCSBOrganization::getOrgCode);
+    }
+
+    /**
+     * Export all ucsb organizations as newline-delimited JSON, one per line
+     * 
+     * @return the ucsb organizations, streamed to the client as they are read
+     */
+    @Operation(summary= "Export all ucsb organizations as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUCSBOrganization() {
+        return ndjsonExport(ndjsonExportService, ucsbOrganizationsRepository, "ucsborganization");
+    }
+
     /**
      * This method returns a single organization.
      * @param orgCode code of the organization
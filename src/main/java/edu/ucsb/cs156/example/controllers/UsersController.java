@@ -4,15 +4,22 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.UserChangedEvent;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 /**
@@ -31,6 +38,9 @@ public class UsersController extends ApiController {
     @Autowired
     ObjectMapper mapper;
 
+    @Autowired
+    ApplicationEventPublisher applicationEventPublisher;
+
     /**
      * This method returns a list of all users.  Accessible only to users with the role "ROLE_ADMIN".
      * @return a list of all users
@@ -45,4 +55,45 @@ public class UsersController extends ApiController {
         String body = mapper.writeValueAsString(users);
         return ResponseEntity.ok().body(body);
     }
+
+    /**
+     * This method returns users a page at a time, in id order.  Accessible only to users with the role "ROLE_ADMIN".
+     * @param limit the number of users per page
+     * @param after the next of the previous page, or 0 for the first page
+     * @return a page of users and the cursor of the next page
+     */
+    @Operation(summary= "List users a page at a time")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "", params = "limit")
+    public KeysetPage<User> usersKeyset(
+            @Parameter(name="limit", description="how many per page (1 to 100)")
+            @RequestParam int limit,
+            @Parameter(name="after", description="next of the previous page, if any")
+            @RequestParam(defaultValue = "0") long after) {
+        return keysetPage(
+                userRepository.findByIdGreaterThanOrderByIdAsc(after, keysetRequest(limit)),
+                User::getId);
+    }
+
+    /**
+     * This method makes a user an admin, or no longer an admin.  Accessible only to users with the role "ROLE_ADMIN".
+     * Users listed in app.admin.emails are admins whatever their flag says.
+     * The change takes effect the next time the user logs in.
+     * @param id the id of the user
+     * @param admin whether the user should be an admin
+     * @return the updated user
+     */
+    @Operation(summary= "Make a user an admin, or no longer an admin")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/admin")
+    public User setAdmin(
+            @Parameter(name="id") @RequestParam long id,
+            @Parameter(name="admin") @RequestParam boolean admin) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(User.class, id));
+        user.setAdmin(admin);
+        userRepository.save(user);
+        applicationEventPublisher.publishEvent(new UserChangedEvent(user.getEmail()));
+        return user;
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,7 +23,11 @@ import lombok.NoArgsConstructor;
 public class HelpRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "helprequest_seq")
+    @SequenceGenerator(
+        name = "helprequest_seq",
+        sequenceName = "HELPREQUEST_SEQ",
+        allocationSize = 50)
     private long id;
 
     private String requesterEmail;
@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import lombok.*;
+
+/**
+ * This is a JPA entity that represents a file uploaded for a bulk import. Its content is stored in
+ * {@link ImportUploadChunk} rows rather than in the payload of the job that imports it, so the job
+ * row stays small and the file never has to be held in memory as a whole.
+ *
+ * importedCount is set in the same transaction that inserts the imported rows, so an import that
+ * is run again (e.g. after the server running it stopped) can tell that it is already done.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "import_uploads")
+public class ImportUpload {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_uploads_seq")
+  @SequenceGenerator(
+      name = "import_uploads_seq",
+      sequenceName = "IMPORT_UPLOADS_SEQ",
+      allocationSize = 50)
+  private long id;
+
+  private String filename;
+  private ZonedDateTime createdAt;
+
+  // null until the upload has been imported
+  private Integer importedCount;
+}
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * This is a JPA entity that represents one piece of an {@link ImportUpload}. The pieces of an
+ * upload are numbered from 0, so its content is their data in chunkNumber order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "import_upload_chunks")
+public class ImportUploadChunk {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_upload_chunks_seq")
+  @SequenceGenerator(
+      name = "import_upload_chunks_seq",
+      sequenceName = "IMPORT_UPLOAD_CHUNKS_SEQ",
+      allocationSize = 50)
+  private long id;
+
+  private long uploadId;
+  private int chunkNumber;
+
+  @ToString.Exclude private byte[] data;
+}
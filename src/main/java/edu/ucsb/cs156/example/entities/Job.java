@@ -16,7 +16,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @EntityListeners(AuditingEntityListener.class)
 public class Job {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "jobs_seq")
+  // one id at a time, so that ids keep the order jobs were queued in across servers
+  @SequenceGenerator(name = "jobs_seq", sequenceName = "JOBS_SEQ", allocationSize = 1)
   private long id;
 
   @JsonIgnore
@@ -29,6 +31,29 @@ public class Job {
 
   private String status;
 
+  // "interactive" or "batch"; see JobService#claimNextJob
+  private String lane;
+
+  // approximate number of jobs that start before this one while it is pending; not stored
+  @Transient private Long queuePosition;
+
+  private boolean cancelRequested;
+
+  // reported by the job through JobContext#progress; saved at most every persistIntervalMs
+  private Long progressDone;
+  private Long progressTotal;
+
+  // class name and JSON of the JobContextConsumer, so that the job can be run after a restart
+  private String jobClass;
+
+  @JsonIgnore
+  @Column(columnDefinition = "TEXT")
+  private String payload;
+
+  // the server running the job, which must renew the lease before it expires
+  private String leaseOwner;
+  private ZonedDateTime leaseExpiresAt;
+
   // 1048576 is 2^20, which is the max size of a mediumtext in MySQL
   @Column(
       columnDefinition = "TEXT",
@@ -0,0 +1,33 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import lombok.*;
+
+/**
+ * This is a JPA entity that represents a single line of a job's log.
+ *
+ * Lines are stored append-only in the job_log_lines table and numbered per job starting from 0,
+ * so the full log of a job is its lines ordered by lineNumber.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_log_lines")
+public class JobLogLine {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_log_lines_seq")
+  @SequenceGenerator(
+      name = "job_log_lines_seq",
+      sequenceName = "JOB_LOG_LINES_SEQ",
+      allocationSize = 50)
+  private long id;
+
+  private long jobId;
+  private long lineNumber;
+  private ZonedDateTime loggedAt;
+
+  @Column(columnDefinition = "TEXT")
+  private String message;
+}
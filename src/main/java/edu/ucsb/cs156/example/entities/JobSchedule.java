@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import lombok.*;
+
+/**
+ * A job that is run on a cron schedule. Each run is queued as a new row in the jobs table with the
+ * schedule's job class and payload.
+ *
+ * When the scheduler falls behind (e.g. while no server was running), a run that is more than
+ * {@code app.jobs.schedules.misfireThresholdMs} late is a misfire: with misfirePolicy "RUN_ONCE"
+ * it runs once as soon as possible, with "SKIP" it is dropped. Either way missed runs are never
+ * run more than once, and the schedule continues with the next time the cron expression matches.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_schedules")
+public class JobSchedule {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_schedules_seq")
+  @SequenceGenerator(
+      name = "job_schedules_seq",
+      sequenceName = "JOB_SCHEDULES_SEQ",
+      allocationSize = 50)
+  private long id;
+
+  @Column(unique = true)
+  private String name;
+
+  private String jobClass;
+
+  @Column(columnDefinition = "TEXT")
+  private String payload;
+
+  // Spring cron expression: second minute hour day-of-month month day-of-week
+  private String cron;
+
+  private String misfirePolicy;
+  private boolean enabled;
+
+  private ZonedDateTime nextRunAt;
+  private ZonedDateTime lastRunAt;
+  private Long lastJobId;
+}
@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The reviews of one menu item, summed up: how many there are, their total stars, and how many
+ * gave each of 1 to 5 stars. Rows are kept up to date by {@link
+ * edu.ucsb.cs156.example.services.MenuItemRatingService} as reviews are saved and deleted, so a
+ * rating is read without looking at the reviews themselves.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "menuitemratings")
+public class MenuItemRating {
+  @Id private Long itemId;
+
+  private long reviewCount;
+  private long starsTotal;
+  private long oneStar;
+  private long twoStars;
+  private long threeStars;
+  private long fourStars;
+  private long fiveStars;
+
+  /**
+   * @return the mean stars of the reviews, or null if there are none
+   */
+  public Double getAverageStars() {
+    return reviewCount == 0 ? null : (double) starsTotal / reviewCount;
+  }
+
+  /**
+   * This method returns the change one review makes to the rating of its menu item.
+   *
+   * @param review the review
+   * @param sign 1 if the review is being added, -1 if it is being removed
+   * @return the change
+   */
+  public static MenuItemRating of(MenuItemReview review, int sign) {
+    int stars = review.getStars();
+    return MenuItemRating.builder()
+        .itemId(review.getItemId())
+        .reviewCount(sign)
+        .starsTotal((long) sign * stars)
+        .oneStar(stars == 1 ? sign : 0)
+        .twoStars(stars == 2 ? sign : 0)
+        .threeStars(stars == 3 ? sign : 0)
+        .fourStars(stars == 4 ? sign : 0)
+        .fiveStars(stars == 5 ? sign : 0)
+        .build();
+  }
+
+  /**
+   * This method adds two changes to the rating of the same menu item.
+   *
+   * @param other the other change
+   * @return the sum of this change and the other
+   */
+  public MenuItemRating plus(MenuItemRating other) {
+    return new MenuItemRating(
+        itemId,
+        reviewCount + other.reviewCount,
+        starsTotal + other.starsTotal,
+        oneStar + other.oneStar,
+        twoStars + other.twoStars,
+        threeStars + other.threeStars,
+        fourStars + other.fourStars,
+        fiveStars + other.fiveStars);
+  }
+}
@@ -6,6 +6,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -20,12 +26,27 @@ import lombok.Builder;
 public class MenuItemReview {
 
     @Id // Marks this field as the primary key
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Configures auto-incrementing ID
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menuitemreview_seq")
+    @SequenceGenerator(name = "menuitemreview_seq", sequenceName = "MENUITEMREVIEW_SEQ", allocationSize = 50) // Ids are handed out in blocks of 50
     private Long id;
 
+    // these rules apply to reviews that are posted, updated or imported; stars run from 1 to 5 so
+    // that every review is counted in one of the star buckets of its MenuItemRating
+
+    @NotNull(message = "itemId is missing")
     private Long itemId; // Foreign key to the menu item (we'll assume it's just a Long for now)
+
+    @NotBlank(message = "reviewerEmail is missing")
+    @Email(message = "reviewerEmail is not an email address")
     private String reviewerEmail;
-    private int stars; // Rating out of 5, for example
+
+    @NotNull(message = "stars is missing")
+    @Min(value = 1, message = "stars must be from 1 to 5")
+    @Max(value = 5, message = "stars must be from 1 to 5")
+    private Integer stars; // Rating out of 5
+
+    @NotNull(message = "dateReviewed is missing")
     private LocalDateTime dateReviewed;
+
     private String comments;
 }
\ No newline at end of file
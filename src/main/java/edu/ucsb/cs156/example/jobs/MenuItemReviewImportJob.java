@@ -0,0 +1,38 @@
+package edu.ucsb.cs156.example.jobs;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import edu.ucsb.cs156.example.services.MenuItemReviewImportService;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Imports an uploaded file of menu item reviews. The job stores only the id of the upload (see
+ * ImportUploadService), so the import can be run again from the start if the server running it
+ * stops. The upload is marked as imported in the same transaction that inserts the reviews, so a
+ * run after the import committed adds nothing.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuItemReviewImportJob implements JobContextConsumer {
+
+  // set by JobService#loadJob when the job is read back from the database
+  @JsonIgnore @Autowired private MenuItemReviewImportService importService;
+
+  private String filename;
+  private String format;
+  private long uploadId;
+
+  @Override
+  public void accept(JobContext ctx) throws Exception {
+    ctx.log(String.format("Importing menu item reviews from %s", filename));
+    int imported = importService.importReviews(format, uploadId, ctx);
+    ctx.log(String.format("Imported %d menu item reviews", imported));
+  }
+}
@@ -2,11 +2,17 @@ package edu.ucsb.cs156.example.jobs;
 
 import edu.ucsb.cs156.example.services.jobs.JobContext;
 import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+@Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class TestJob implements JobContextConsumer {
 
   private boolean fail;
@@ -18,10 +24,13 @@ public class TestJob implements JobContextConsumer {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
     ctx.log("Hello World! from test job!");
+    ctx.progress(0, 1);
     Thread.sleep(sleepMs);
+    ctx.checkCancelled();
     if (fail) {
       throw new Exception("Fail!");
     }
+    ctx.progress(1, 1);
     ctx.log("Goodbye from test job!");
   }
 }
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.models;
+
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a range of lines from a job log.
+ *
+ * Lines are numbered from 0; a client that wants only what is new asks for the range starting at
+ * nextOffset.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobLogRange {
+  private long offset; // line number of the first line in lines
+  private long nextOffset; // line number following the last line in lines
+  private List<String> lines;
+}
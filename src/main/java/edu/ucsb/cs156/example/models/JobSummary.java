@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.ZonedDateTime;
+
+/**
+ * This is a projection of a Job that leaves out its log, used when listing many jobs at once and
+ * when polling the status of one job.
+ */
+public interface JobSummary {
+  long getId();
+
+  String getStatus();
+
+  String getLane();
+
+  Long getProgressDone();
+
+  Long getProgressTotal();
+
+  ZonedDateTime getCreatedAt();
+
+  ZonedDateTime getUpdatedAt();
+}
@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import jakarta.persistence.criteria.Predicate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * This is a model class that represents the conditions a search for menu item reviews may set.
+ * Conditions that are null are left out of the query, so that the database can answer it from
+ * whichever index covers the conditions that are set (see the MenuItemReview-4 changeset).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MenuItemReviewFilter {
+  private Long itemId;
+  private String reviewerEmail;
+  private Integer minStars;
+  private Integer maxStars;
+  private LocalDateTime reviewedFrom; // inclusive
+  private LocalDateTime reviewedTo; // inclusive
+
+  /**
+   * This method returns the query for the reviews that match, after a keyset cursor.
+   *
+   * @param afterId id of the last review of the previous page, or 0 for the first page
+   * @return the specification of the matching reviews with an id greater than afterId
+   */
+  public Specification<MenuItemReview> toSpecification(long afterId) {
+    return (root, query, cb) -> {
+      List<Predicate> predicates = new ArrayList<>();
+      predicates.add(cb.greaterThan(root.<Long>get("id"), afterId));
+      if (itemId != null) {
+        predicates.add(cb.equal(root.get("itemId"), itemId));
+      }
+      if (reviewerEmail != null) {
+        predicates.add(cb.equal(root.get("reviewerEmail"), reviewerEmail));
+      }
+      if (minStars != null) {
+        predicates.add(cb.greaterThanOrEqualTo(root.<Integer>get("stars"), minStars));
+      }
+      if (maxStars != null) {
+        predicates.add(cb.lessThanOrEqualTo(root.<Integer>get("stars"), maxStars));
+      }
+      if (reviewedFrom != null) {
+        predicates.add(
+            cb.greaterThanOrEqualTo(root.<LocalDateTime>get("dateReviewed"), reviewedFrom));
+      }
+      if (reviewedTo != null) {
+        predicates.add(cb.lessThanOrEqualTo(root.<LocalDateTime>get("dateReviewed"), reviewedTo));
+      }
+      return cb.and(predicates.toArray(new Predicate[0]));
+    };
+  }
+}
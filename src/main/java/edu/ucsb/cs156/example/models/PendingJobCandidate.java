@@ -0,0 +1,11 @@
+package edu.ucsb.cs156.example.models;
+
+/**
+ * The oldest pending job of one user in one lane; the next job dispatched is chosen from these.
+ */
+public interface PendingJobCandidate {
+  /** @return id of the user who launched the job, or null for scheduled jobs */
+  Long getUserId();
+
+  long getJobId();
+}
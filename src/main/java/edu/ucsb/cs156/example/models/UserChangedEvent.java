@@ -0,0 +1,15 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * This is an application event published (with ApplicationEventPublisher) after a stored user
+ * has been changed or removed, e.g. when their admin flag changes, so that anything caching the
+ * user can drop it.
+ */
+@Data
+@AllArgsConstructor
+public class UserChangedEvent {
+  private String email;
+}
@@ -0,0 +1,9 @@
+package edu.ucsb.cs156.example.models;
+
+/** The number of jobs of one user, used to dispatch jobs fairly between users. */
+public interface UserJobCount {
+  /** @return id of the user who launched the jobs, or null for scheduled jobs */
+  Long getUserId();
+
+  long getCount();
+}
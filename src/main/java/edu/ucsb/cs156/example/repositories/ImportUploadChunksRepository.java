@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.ImportUploadChunk;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The ImportUploadChunksRepository is a repository for ImportUploadChunk entities. */
+@Repository
+public interface ImportUploadChunksRepository extends CrudRepository<ImportUploadChunk, Long> {
+  /**
+   * This method returns the data of one chunk of an upload, without keeping the chunk in the
+   * persistence context.
+   *
+   * @param uploadId id of the upload
+   * @param chunkNumber number of the chunk, from 0
+   * @return the data, or empty if the upload has no such chunk
+   */
+  @Query(
+      "select c.data from import_upload_chunks c"
+          + " where c.uploadId = :uploadId and c.chunkNumber = :chunkNumber")
+  Optional<byte[]> findData(
+      @Param("uploadId") long uploadId, @Param("chunkNumber") int chunkNumber);
+
+  /**
+   * This method deletes the content of an upload in a single statement.
+   *
+   * @param uploadId id of the upload
+   * @return the number of chunks deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from import_upload_chunks c where c.uploadId = :uploadId")
+  int deleteByUploadId(@Param("uploadId") long uploadId);
+}
@@ -0,0 +1,38 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.ImportUpload;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** The ImportUploadsRepository is a repository for ImportUpload entities. */
+@Repository
+public interface ImportUploadsRepository extends CrudRepository<ImportUpload, Long> {
+  /**
+   * This method locks and returns an upload, so that only one import of it runs at a time. Must
+   * be called inside a transaction.
+   *
+   * @param id id of the upload
+   * @return the locked upload, or empty if it does not exist
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select u from import_uploads u where u.id = :id")
+  Optional<ImportUpload> findByIdForUpdate(@Param("id") long id);
+
+  /**
+   * This method records that an upload has been imported. Must be called inside the transaction
+   * that inserts the imported rows.
+   *
+   * @param id id of the upload
+   * @param count the number of rows imported
+   * @return the number of uploads updated
+   */
+  @Modifying
+  @Query("update import_uploads u set u.importedCount = :count where u.id = :id")
+  int markImported(@Param("id") long id, @Param("count") int count);
+}
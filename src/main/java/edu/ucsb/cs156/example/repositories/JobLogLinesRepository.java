@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The JobLogLinesRepository is a repository for JobLogLine entities. */
+@Repository
+public interface JobLogLinesRepository extends CrudRepository<JobLogLine, Long> {
+  /**
+   * This method returns log lines of a job starting from a given line number, in order.
+   *
+   * @param jobId id of the job
+   * @param lineNumber number of the first line to return
+   * @param pageable limits how many lines are returned
+   * @return the log lines of the job from lineNumber on
+   */
+  List<JobLogLine> findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+      long jobId, long lineNumber, Pageable pageable);
+
+  /**
+   * This method returns the last log lines of a job, newest first.
+   *
+   * @param jobId id of the job
+   * @param pageable limits how many lines are returned
+   * @return the newest log lines of the job
+   */
+  List<JobLogLine> findByJobIdOrderByLineNumberDesc(long jobId, Pageable pageable);
+
+  /**
+   * This method checks whether a job has any log lines.
+   *
+   * @param jobId id of the job
+   * @return whether the job has log lines
+   */
+  boolean existsByJobId(long jobId);
+
+  /**
+   * This method returns the highest line number of a job's log.
+   *
+   * @param jobId id of the job
+   * @return the highest line number, or empty if the job has no lines
+   */
+  @Query("select max(l.lineNumber) from job_log_lines l where l.jobId = :jobId")
+  Optional<Long> findMaxLineNumberByJobId(@Param("jobId") long jobId);
+
+  /**
+   * This method deletes all of the log lines of a job in a single statement.
+   *
+   * @param jobId id of the job
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from job_log_lines l where l.jobId = :jobId")
+  void deleteByJobId(@Param("jobId") long jobId);
+
+  /**
+   * This method deletes all of the log lines of the given jobs in a single statement.
+   *
+   * @param jobIds ids of the jobs
+   * @return the number of lines deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from job_log_lines l where l.jobId in :jobIds")
+  int deleteByJobIdIn(@Param("jobIds") Collection<Long> jobIds);
+
+  /**
+   * This method deletes every log line in a single statement, without loading them first.
+   *
+   * @return the number of lines deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from job_log_lines l")
+  int deleteAllInBulk();
+}
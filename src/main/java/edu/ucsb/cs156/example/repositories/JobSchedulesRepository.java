@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobSchedulesRepository extends KeysetRepository<JobSchedule> {
+  /**
+   * This method checks whether a schedule other than the given one has a name; names are unique
+   * (JOB_SCHEDULES_NAME_UK).
+   *
+   * @param name the name
+   * @param id id of the schedule to leave out, or 0 for a schedule not stored yet
+   * @return whether another schedule has the name
+   */
+  boolean existsByNameAndIdNot(String name, long id);
+
+  /**
+   * This method locks and returns the enabled schedules that are due, earliest first. Like {@link
+   * JobsRepository#findPendingByIdForUpdate}, schedules locked by another server are skipped
+   * where the database supports {@code SKIP LOCKED}. Must be called inside a transaction.
+   *
+   * @param now the current time
+   * @param pageable how many schedules to lock
+   * @return the locked schedules
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query(
+      "select s from job_schedules s where s.enabled = true and s.nextRunAt <= :now"
+          + " order by s.nextRunAt")
+  List<JobSchedule> findDueForUpdate(@Param("now") ZonedDateTime now, Pageable pageable);
+}
@@ -1,8 +1,348 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Job;
-import org.springframework.data.repository.CrudRepository;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.models.PendingJobCandidate;
+import edu.ucsb.cs156.example.models.UserJobCount;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface JobsRepository extends CrudRepository<Job, Long> {}
+public interface JobsRepository extends KeysetRepository<Job> {
+  /**
+   * This method returns a page of jobs without their logs.
+   *
+   * @param pageable which page to return, and how to sort
+   * @return a page of job summaries
+   */
+  Page<JobSummary> findAllProjectedBy(Pageable pageable);
+
+  /**
+   * This method returns a page of the jobs with one of the given statuses, without their logs.
+   *
+   * @param statuses the statuses to include
+   * @param pageable which page to return, and how to sort
+   * @return a page of job summaries
+   */
+  Page<JobSummary> findByStatusIn(Collection<String> statuses, Pageable pageable);
+
+  /**
+   * This method returns the status of a job without loading the rest of the row.
+   *
+   * @param id id of the job
+   * @return Optional of the status (empty if the job does not exist)
+   */
+  @Query("select j.status from jobs j where j.id = :id")
+  Optional<String> findStatusById(@Param("id") long id);
+
+  /**
+   * This method returns the status and progress of a job without loading its log.
+   *
+   * @param id id of the job
+   * @return Optional of the job summary (empty if the job does not exist)
+   */
+  Optional<JobSummary> findProjectedById(long id);
+
+  /**
+   * This method returns the log stored on the job row itself, which is only used by jobs that ran
+   * before log lines were stored in job_log_lines.
+   *
+   * @param id id of the job
+   * @return Optional of the log (empty if the job does not exist or has no log)
+   */
+  @Query("select j.log from jobs j where j.id = :id")
+  Optional<String> findLogById(@Param("id") long id);
+
+  /**
+   * This method returns whether cancellation has been requested for a job.
+   *
+   * @param id id of the job
+   * @return whether the job should be cancelled, or empty if the job does not exist
+   */
+  @Query("select j.cancelRequested from jobs j where j.id = :id")
+  Optional<Boolean> findCancelRequestedById(@Param("id") long id);
+
+  /**
+   * This method cancels a job that is still waiting in the queue.
+   *
+   * @param id id of the job
+   * @param now the time the job was cancelled, from which its retention is counted
+   * @return 1 if the job was pending and is now cancelled, otherwise 0
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "update jobs j set j.status = 'cancelled', j.cancelRequested = true, j.updatedAt = :now"
+          + " where j.id = :id and j.status = 'pending'")
+  int cancelPendingById(@Param("id") long id, @Param("now") ZonedDateTime now);
+
+  /**
+   * This method marks a pending job as running and leased by a server, unless some other server
+   * claimed it first.
+   *
+   * @param id id of the job
+   * @param owner the server claiming the job
+   * @param expiresAt when the lease expires unless it is renewed
+   * @return 1 if the job was claimed, otherwise 0
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "update jobs j set j.status = 'running', j.leaseOwner = :owner, j.leaseExpiresAt = :expiresAt"
+          + " where j.id = :id and j.status = 'pending'")
+  int claimById(
+      @Param("id") long id,
+      @Param("owner") String owner,
+      @Param("expiresAt") ZonedDateTime expiresAt);
+
+  /**
+   * This method puts a claimed job that could not be started back in the queue.
+   *
+   * @param id id of the job
+   * @return 1 if the job was released, otherwise 0
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "update jobs j set j.status = 'pending', j.leaseOwner = null, j.leaseExpiresAt = null"
+          + " where j.id = :id and j.status = 'running'")
+  int releaseById(@Param("id") long id);
+
+  /**
+   * This method records the final status of a job, if the server is still its lease owner.
+   *
+   * @param id id of the job
+   * @param owner the server that ran the job
+   * @param status the final status
+   * @param cancelRequested whether the job was cancelled
+   * @param now the time the job finished
+   * @return 1 if the job was updated, 0 if another server has taken it over
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "update jobs j set j.status = :status, j.cancelRequested = :cancelRequested,"
+          + " j.leaseOwner = null, j.leaseExpiresAt = null, j.updatedAt = :now"
+          + " where j.id = :id and j.leaseOwner = :owner")
+  int finishById(
+      @Param("id") long id,
+      @Param("owner") String owner,
+      @Param("status") String status,
+      @Param("cancelRequested") boolean cancelRequested,
+      @Param("now") ZonedDateTime now);
+
+  /**
+   * This method saves the progress reported by a job, without loading or touching the rest of the
+   * row.
+   *
+   * @param id id of the job
+   * @param done units of work done
+   * @param total units of work in all
+   * @return the number of jobs updated
+   */
+  @Modifying
+  @Transactional
+  @Query("update jobs j set j.progressDone = :done, j.progressTotal = :total where j.id = :id")
+  int updateProgressById(
+      @Param("id") long id, @Param("done") long done, @Param("total") long total);
+
+  /**
+   * This method extends the leases a server holds on running jobs. Only the given jobs are
+   * renewed, so a job the server no longer has (such as one whose thread died before its status
+   * was saved) lets its lease expire and is requeued.
+   *
+   * @param owner the server
+   * @param ids ids of the jobs the server is running or about to run
+   * @param expiresAt the new expiry time
+   * @return the number of leases renewed
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "update jobs j set j.leaseExpiresAt = :expiresAt"
+          + " where j.leaseOwner = :owner and j.status = 'running' and j.id in :ids")
+  int renewLeases(
+      @Param("owner") String owner,
+      @Param("ids") Collection<Long> ids,
+      @Param("expiresAt") ZonedDateTime expiresAt);
+
+  /**
+   * This method returns the ids of running jobs of a server that have been asked to cancel.
+   *
+   * @param owner the server
+   * @return ids of the jobs to cancel
+   */
+  @Query(
+      "select j.id from jobs j"
+          + " where j.leaseOwner = :owner and j.status = 'running' and j.cancelRequested = true")
+  List<Long> findCancelRequestedIdsByLeaseOwner(@Param("owner") String owner);
+
+  /**
+   * This method returns, for each user, their oldest pending job in a lane that can be run from
+   * its stored payload.
+   *
+   * @param lane the lane
+   * @return one candidate per user
+   */
+  @Query(
+      "select u.id as userId, min(j.id) as jobId from jobs j left join j.createdBy u"
+          + " where j.status = 'pending' and j.lane = :lane and j.jobClass is not null"
+          + " group by u.id")
+  List<PendingJobCandidate> findOldestPendingPerUser(@Param("lane") String lane);
+
+  /**
+   * This method returns the number of running jobs of each user that has any.
+   *
+   * @return the counts
+   */
+  @Query(
+      "select u.id as userId, count(j) as count from jobs j left join j.createdBy u"
+          + " where j.status = 'running' group by u.id")
+  List<UserJobCount> countRunningPerUser();
+
+  /**
+   * This method locks and returns a job if it is still pending. The lock timeout of -2 asks
+   * Hibernate for {@code SKIP LOCKED}, so a job already locked by another server is skipped; on
+   * databases without it (H2) it is a plain {@code FOR UPDATE}. Must be called inside a
+   * transaction.
+   *
+   * @param id id of the job
+   * @return the locked job, or empty if it is no longer pending or is locked by another server
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("select j from jobs j where j.id = :id and j.status = 'pending'")
+  Optional<Job> findPendingByIdForUpdate(@Param("id") long id);
+
+  /**
+   * This method counts the pending jobs in a lane that were queued before a job.
+   *
+   * @param lane the lane
+   * @param id id of the job
+   * @return the number of jobs queued ahead of it
+   */
+  @Query(
+      "select count(j) from jobs j"
+          + " where j.status = 'pending' and j.lane = :lane and j.id < :id")
+  long countPendingAhead(@Param("lane") String lane, @Param("id") long id);
+
+  /**
+   * This method puts running jobs whose lease has expired back in the queue, if they can be run
+   * again from their stored payload. Jobs without a lease are treated as expired.
+   *
+   * @param now the current time, also saved as the time the jobs were last updated
+   * @return the number of jobs requeued
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "update jobs j set j.status = 'pending', j.leaseOwner = null, j.leaseExpiresAt = null,"
+          + " j.updatedAt = :now"
+          + " where j.status = 'running' and j.jobClass is not null"
+          + " and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+  int requeueExpired(@Param("now") ZonedDateTime now);
+
+  /**
+   * This method marks running jobs whose lease has expired, and that have no stored payload, as
+   * failed. Jobs without a lease are treated as expired.
+   *
+   * @param now the current time, also saved as the time the jobs were last updated
+   * @return the number of jobs marked as failed
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "update jobs j set j.status = 'error', j.leaseOwner = null, j.leaseExpiresAt = null,"
+          + " j.updatedAt = :now"
+          + " where j.status = 'running' and j.jobClass is null"
+          + " and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+  int failExpired(@Param("now") ZonedDateTime now);
+
+  /**
+   * This method flags a running job for cancellation.
+   *
+   * @param id id of the job
+   * @return 1 if the job was running and is now flagged, otherwise 0
+   */
+  @Modifying
+  @Transactional
+  @Query("update jobs j set j.cancelRequested = true where j.id = :id and j.status = 'running'")
+  int requestCancelById(@Param("id") long id);
+
+  /**
+   * This method returns the ids of jobs with one of the given statuses that were last updated
+   * before a cutoff (or have no timestamps at all), lowest id first.
+   *
+   * @param statuses the statuses to include
+   * @param cutoff only jobs last updated before this are returned
+   * @param pageable limits how many ids are returned
+   * @return the ids of the matching jobs
+   */
+  @Query(
+      "select j.id from jobs j where j.status in :statuses"
+          + " and (j.updatedAt < :cutoff or j.updatedAt is null) order by j.id")
+  List<Long> findIdsByStatusInAndUpdatedBefore(
+      @Param("statuses") Collection<String> statuses,
+      @Param("cutoff") ZonedDateTime cutoff,
+      Pageable pageable);
+
+  /**
+   * This method returns the ids of jobs with one of the given statuses, newest first.
+   *
+   * @param statuses the statuses to include
+   * @param pageable which ids to return
+   * @return the ids of the matching jobs
+   */
+  @Query("select j.id from jobs j where j.status in :statuses order by j.id desc")
+  List<Long> findIdsByStatusInNewestFirst(
+      @Param("statuses") Collection<String> statuses, Pageable pageable);
+
+  /**
+   * This method returns the ids of jobs with one of the given statuses whose id is at most maxId,
+   * lowest id first.
+   *
+   * @param statuses the statuses to include
+   * @param maxId the highest id to include
+   * @param pageable limits how many ids are returned
+   * @return the ids of the matching jobs
+   */
+  @Query("select j.id from jobs j where j.status in :statuses and j.id <= :maxId order by j.id")
+  List<Long> findIdsByStatusInUpTo(
+      @Param("statuses") Collection<String> statuses,
+      @Param("maxId") long maxId,
+      Pageable pageable);
+
+  /**
+   * This method deletes the jobs with the given ids in a single statement.
+   *
+   * @param ids ids of the jobs to delete
+   * @return the number of jobs deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from jobs j where j.id in :ids")
+  int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * This method deletes every job in a single statement, without loading them first.
+   *
+   * @return the number of jobs deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from jobs j")
+  int deleteAllInBulk();
+}
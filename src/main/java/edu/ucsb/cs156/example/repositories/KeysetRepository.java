@@ -0,0 +1,26 @@
+package edu.ucsb.cs156.example.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * The KeysetRepository is a base for repositories of entities with a numeric id that can be
+ * listed a page at a time in id order.
+ *
+ * Each page seeks past the last id of the previous one (keyset pagination), which the primary key
+ * index answers directly, so a page costs the same no matter how far into the table it is.
+ *
+ * @param <T> the entity type
+ */
+@NoRepositoryBean
+public interface KeysetRepository<T> extends StreamingRepository<T, Long> {
+  /**
+   * This method returns the entities with an id greater than the given one, in id order.
+   *
+   * @param id the id of the last entity of the previous page, or 0 for the first page
+   * @param pageable how many entities to return; the slice tells whether there are more
+   * @return the entities
+   */
+  Slice<T> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+}
@@ -0,0 +1,46 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MenuItemRatingRepository extends CrudRepository<MenuItemRating, Long> {
+  /**
+   * This method adds a change to the stored rating of a menu item in a single statement, so
+   * concurrent changes to the same item are not lost. Must be called inside a transaction.
+   *
+   * @param change the change, e.g. from {@link MenuItemRating#of}
+   * @return 1 if the item has a stored rating, otherwise 0 and nothing is changed
+   */
+  @Modifying
+  @Query(
+      "update menuitemratings r set"
+          + " r.reviewCount = r.reviewCount + :#{#change.reviewCount},"
+          + " r.starsTotal = r.starsTotal + :#{#change.starsTotal},"
+          + " r.oneStar = r.oneStar + :#{#change.oneStar},"
+          + " r.twoStars = r.twoStars + :#{#change.twoStars},"
+          + " r.threeStars = r.threeStars + :#{#change.threeStars},"
+          + " r.fourStars = r.fourStars + :#{#change.fourStars},"
+          + " r.fiveStars = r.fiveStars + :#{#change.fiveStars}"
+          + " where r.itemId = :#{#change.itemId}")
+  int addToRating(@Param("change") MenuItemRating change);
+
+  /**
+   * This method stores a rating with no reviews for a menu item. It fails if the item already has
+   * a stored rating.
+   *
+   * @param itemId id of the menu item
+   * @return the number of ratings stored
+   */
+  @Modifying
+  @Query(
+      "insert into menuitemratings"
+          + " (itemId, reviewCount, starsTotal,"
+          + " oneStar, twoStars, threeStars, fourStars, fiveStars)"
+          + " values (:itemId, 0, 0, 0, 0, 0, 0, 0)")
+  int insertEmptyRating(@Param("itemId") long itemId);
+}
@@ -1,11 +1,27 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.MenuItemReview;
-import org.springframework.data.repository.CrudRepository;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository // Marks this as a Spring Data repository
-public interface MenuItemReviewRepository extends CrudRepository<MenuItemReview, Long> {
-    // You can add custom query methods here later if needed, e.g.:
-    // Iterable<MenuItemReview> findByItemId(Long itemId);
-}
\ No newline at end of file
+public interface MenuItemReviewRepository extends KeysetRepository<MenuItemReview>,
+        JpaSpecificationExecutor<MenuItemReview> {
+    // searches are built from a MenuItemReviewFilter; see MenuItemReviewController#searchReviews
+
+    /**
+     * This method locks and returns a review, so that only one change to it is applied to the
+     * ratings at a time. Must be called inside a transaction.
+     *
+     * @param id id of the review
+     * @return the locked review, or empty if it does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from menuitemreview r where r.id = :id")
+    Optional<MenuItemReview> findByIdForUpdate(@Param("id") long id);
+}
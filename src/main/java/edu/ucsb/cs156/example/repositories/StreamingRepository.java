@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.repositories;
+
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * The StreamingRepository is a base for repositories whose whole table can be exported.
+ *
+ * @param <T> the entity type
+ * @param <ID> the type of the entity's id
+ */
+@NoRepositoryBean
+public interface StreamingRepository<T, ID> extends CrudRepository<T, ID> {
+  /**
+   * This method returns every entity as a stream that reads rows from the database as it is
+   * consumed, a fetch-size batch at a time, instead of loading the whole table into a list. It
+   * must be called inside a transaction and the stream must be closed.
+   *
+   * @return the entities
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  Stream<T> streamAllBy();
+}
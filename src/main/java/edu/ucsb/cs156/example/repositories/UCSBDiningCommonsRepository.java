@@ -3,13 +3,21 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 
 /**
  * The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities
  */
 @Repository
-public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
- 
-}
\ No newline at end of file
+public interface UCSBDiningCommonsRepository extends StreamingRepository<UCSBDiningCommons, String> {
+  /**
+   * This method returns the ucsb dining commons with a code after the given one, in code order.
+   * @param code the code of the last one on the previous page, or "" for the first page
+   * @param pageable how many to return; the slice tells whether there are more
+   * @return the ucsb dining commons
+   */
+  Slice<UCSBDiningCommons> findByCodeGreaterThanOrderByCodeAsc(
+      String code, Pageable pageable);
+}
@@ -3,13 +3,22 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 
 /**
  * The UCSBOrganizationsRepository is a repository for UCSBOrganizations entities
  */
 @Repository
-public interface UCSBOrganizationRepository extends CrudRepository<UCSBOrganization, String> {
- 
-}
\ No newline at end of file
+public interface UCSBOrganizationRepository extends StreamingRepository<UCSBOrganization, String> {
+  /**
+   * This method returns the ucsb organizations with an orgCode after the given one, in orgCode
+   * order.
+   * @param orgCode the orgCode of the last one on the previous page, or "" for the first page
+   * @param pageable how many to return; the slice tells whether there are more
+   * @return the ucsb organizations
+   */
+  Slice<UCSBOrganization> findByOrgCodeGreaterThanOrderByOrgCodeAsc(
+      String orgCode, Pageable pageable);
+}
@@ -1,7 +1,6 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
-import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,9 +9,10 @@ import java.util.Optional;
  * The UserRepository is a repository for User entities.
  */
 @Repository
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends KeysetRepository<User> {
   /**
-   * This method returns a User entity with a given email.
+   * This method returns a User entity with a given email. Emails are unique, and the lookup
+   * uses the USERS_EMAIL_IDX index.
    * @param email email address of the user
    * @return Optional of User (empty if not found)
    */
@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * This component writes authentication events to the "auth.audit" logger as key=value lines.
+ *
+ * <p>Logins and newly stored users are logged at INFO. Lookups made on every request are logged
+ * at DEBUG, and only for a fraction app.auth.audit.sampleRate of them. Full OAuth2 attribute maps
+ * are logged only at TRACE. The level is set like any other logger, e.g.
+ * logging.level.auth.audit=DEBUG.
+ */
+@Component
+public class AuthAuditLogger {
+  public static final String LOGGER_NAME = "auth.audit";
+
+  private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+  @Value("${app.auth.audit.sampleRate:0.01}")
+  private double sampleRate;
+
+  // returns a number in [0, 1) for each lookup; a lookup is logged if it is below sampleRate
+  DoubleSupplier random = () -> ThreadLocalRandom.current().nextDouble();
+
+  /**
+   * This method logs a login with the roles it was granted.
+   *
+   * @param email email address of the user logging in
+   * @param authorities authorities granted to the user
+   */
+  public void login(String email, Collection<? extends GrantedAuthority> authorities) {
+    if (log.isInfoEnabled()) {
+      log.info("event=login email={} roles={}", email, authorityNames(authorities));
+    }
+  }
+
+  /**
+   * This method logs that a user was stored, or had their admin flag updated, at login.
+   *
+   * @param email email address of the user
+   * @param admin whether the stored user is an admin
+   */
+  public void userStored(String email, boolean admin) {
+    log.info("event=userStored email={} admin={}", email, admin);
+  }
+
+  /**
+   * This method logs a sample of the lookups made on every request.
+   *
+   * @param event name of the lookup, e.g. currentUser
+   * @param principal name of the authenticated principal
+   * @param authorities authorities of the principal
+   */
+  public void lookup(
+      String event, String principal, Collection<? extends GrantedAuthority> authorities) {
+    if (log.isDebugEnabled() && random.getAsDouble() < sampleRate) {
+      log.debug(
+          "event={} principal={} roles={} sampleRate={}",
+          event,
+          principal,
+          authorityNames(authorities),
+          sampleRate);
+    }
+  }
+
+  /**
+   * This method logs the OAuth2 attributes of a user, which is only done at TRACE.
+   *
+   * @param email email address of the user
+   * @param attributes OAuth2 attributes of the user
+   */
+  public void attributes(String email, Map<String, Object> attributes) {
+    if (log.isTraceEnabled()) {
+      log.trace("event=attributes email={} attributes={}", email, attributes);
+    }
+  }
+
+  // the names of the authorities, sorted; an OAuth2UserAuthority would print its attribute map
+  static String authorityNames(Collection<? extends GrantedAuthority> authorities) {
+    return authorities.stream()
+        .map(GrantedAuthority::getAuthority)
+        .sorted()
+        .collect(Collectors.joining(",", "[", "]"));
+  }
+}
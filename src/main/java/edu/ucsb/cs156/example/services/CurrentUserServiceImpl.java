@@ -2,9 +2,12 @@ package edu.ucsb.cs156.example.services;
 
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.models.UserChangedEvent;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -13,6 +16,8 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -37,9 +42,26 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   @Autowired
   GrantedAuthoritiesService grantedAuthoritiesService;
 
+  @Autowired
+  AuthAuditLogger authAuditLogger;
+
   @Value("${app.admin.emails}")
   final private List<String> adminEmails = new ArrayList<String>();
 
+  @Value("${app.currentUser.cacheTtlMs:60000}")
+  private long userCacheTtlMs;
+
+  @Value("${app.currentUser.cacheSize:10000}")
+  private int userCacheSize;
+
+  // the users looked up or stored by getOAuth2AuthenticatedUser, by email
+  private TtlCache<String, User> userCache;
+
+  @PostConstruct
+  void createUserCache() {
+    userCache = new TtlCache<>(Duration.ofMillis(userCacheTtlMs), userCacheSize);
+  }
+
   /**
    * This method returns the current user as a User object.
    * @return the current user
@@ -49,7 +71,8 @@ public class CurrentUserServiceImpl extends CurrentUserService {
       .user(this.getUser())
       .roles(this.getRoles())
       .build();
-    log.info("getCurrentUser returns {}",cu);
+    authAuditLogger.lookup("currentUser",
+        cu.getUser() == null ? null : cu.getUser().getEmail(), cu.getRoles());
     return cu;
   }
 
@@ -58,6 +81,8 @@ public class CurrentUserServiceImpl extends CurrentUserService {
    * The parameters are automatically injected by Spring.
    * 
    * This method also has a side effect of storing the user in the database if they are not already there.
+   * The user is then cached by email for app.currentUser.cacheTtlMs, so most requests do not
+   * touch the database; a UserChangedEvent drops the cached user.
    * 
    * @param securityContext the security context (provided by Spring)
    * @param authentication the authentication token (provided by Spring)
@@ -66,6 +91,11 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   
   public User getOAuth2AuthenticatedUser(SecurityContext securityContext, Authentication authentication) {
     OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
+    String email = oAuthUser.getAttribute("email");
+    return userCache.get(email, key -> findOrStoreUser(oAuthUser));
+  }
+
+  private User findOrStoreUser(OAuth2User oAuthUser) {
     String email = oAuthUser.getAttribute("email");
     String googleSub = oAuthUser.getAttribute("sub");
     String pictureUrl = oAuthUser.getAttribute("picture");
@@ -75,9 +105,7 @@ public class CurrentUserServiceImpl extends CurrentUserService {
     boolean emailVerified = oAuthUser.getAttribute("email_verified");
     String locale = oAuthUser.getAttribute("locale");
     String hostedDomain = oAuthUser.getAttribute("hd");
-
-    java.util.Map<java.lang.String,java.lang.Object> attrs = oAuthUser.getAttributes();
-    log.info("attrs={}",attrs);
+    authAuditLogger.attributes(email, oAuthUser.getAttributes());
 
     Optional<User> ou = userRepository.findByEmail(email);
     if (ou.isPresent()) {
@@ -85,6 +113,7 @@ public class CurrentUserServiceImpl extends CurrentUserService {
       if (adminEmails.contains(email) && !u.getAdmin()) {
         u.setAdmin(true);
         userRepository.save(u);
+        authAuditLogger.userStored(email, true);
       }
       return u;
     }
@@ -101,10 +130,25 @@ public class CurrentUserServiceImpl extends CurrentUserService {
         .hostedDomain(hostedDomain)
         .admin(adminEmails.contains(email))
         .build();
-    userRepository.save(u);
+    try {
+      userRepository.save(u);
+    } catch (DataIntegrityViolationException e) {
+      // another request stored this user first; emails are unique (USERS_EMAIL_IDX)
+      return userRepository.findByEmail(email).orElseThrow(() -> e);
+    }
+    authAuditLogger.userStored(email, u.getAdmin());
     return u;
   }
 
+  /**
+   * This method drops a cached user after they have been changed.
+   * @param event names the user that changed
+   */
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    userCache.invalidate(event.getEmail());
+  }
+
   /**
    * This method returns the current user as a User object.
    * @return the current user
@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.ImportUpload;
+import edu.ucsb.cs156.example.entities.ImportUploadChunk;
+import edu.ucsb.cs156.example.repositories.ImportUploadChunksRepository;
+import edu.ucsb.cs156.example.repositories.ImportUploadsRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.ZonedDateTime;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores files uploaded for bulk imports in the database, in chunks of {@code
+ * app.import.chunkBytes} bytes, and reads them back as a stream. Neither holds more than a couple
+ * of chunks in memory, and every server can read an upload, so an import job only needs to carry
+ * the id of its upload.
+ */
+@Service
+public class ImportUploadService {
+  @PersistenceContext private EntityManager entityManager;
+
+  @Autowired private ImportUploadsRepository importUploadsRepository;
+
+  @Autowired private ImportUploadChunksRepository importUploadChunksRepository;
+
+  @Value("${app.import.chunkBytes:1048576}")
+  private int chunkBytes;
+
+  /**
+   * This method stores an upload. Each chunk is flushed and cleared from the persistence context
+   * as soon as it is written.
+   *
+   * @param filename name of the uploaded file
+   * @param content the content of the file
+   * @return id of the stored upload
+   * @throws IOException if the content cannot be read
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public long store(String filename, InputStream content) throws IOException {
+    ImportUpload upload =
+        importUploadsRepository.save(
+            ImportUpload.builder().filename(filename).createdAt(ZonedDateTime.now()).build());
+    int chunkNumber = 0;
+    byte[] data;
+    while ((data = content.readNBytes(chunkBytes)).length > 0) {
+      entityManager.persist(
+          ImportUploadChunk.builder()
+              .uploadId(upload.getId())
+              .chunkNumber(chunkNumber++)
+              .data(data)
+              .build());
+      entityManager.flush();
+      entityManager.clear();
+    }
+    return upload.getId();
+  }
+
+  /**
+   * This method returns the content of an upload as a stream that reads one chunk at a time.
+   *
+   * @param uploadId id of the upload
+   * @return the content; empty if the upload has no content (left)
+   */
+  public InputStream open(long uploadId) {
+    Enumeration<InputStream> chunks =
+        new Enumeration<>() {
+          private int chunkNumber = 0;
+          private Optional<byte[]> next = importUploadChunksRepository.findData(uploadId, 0);
+
+          @Override
+          public boolean hasMoreElements() {
+            return next.isPresent();
+          }
+
+          @Override
+          public InputStream nextElement() {
+            byte[] data = next.orElseThrow(NoSuchElementException::new);
+            next = importUploadChunksRepository.findData(uploadId, ++chunkNumber);
+            return new ByteArrayInputStream(data);
+          }
+        };
+    return new SequenceInputStream(chunks);
+  }
+
+  /**
+   * This method deletes the content of an upload that is no longer needed. The upload itself is
+   * kept, so an import can still tell whether it was done.
+   *
+   * @param uploadId id of the upload
+   */
+  public void discard(long uploadId) {
+    importUploadChunksRepository.deleteByUploadId(uploadId);
+  }
+}
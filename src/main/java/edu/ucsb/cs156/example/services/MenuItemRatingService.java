@@ -0,0 +1,114 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.MenuItemRatingRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Saves and deletes menu item reviews together with the ratings of their menu items, in one
+ * transaction, so each rating always matches the reviews stored for its item.
+ *
+ * A stored review is locked before its old contribution is taken off its rating, so concurrent
+ * changes to the same review are applied one after the other. Ratings are only ever changed by
+ * adding to them in a single statement, and the empty rating of an item reviewed for the first
+ * time is created in a transaction of its own, so concurrent first reviews of an item are all
+ * counted.
+ */
+@Service
+public class MenuItemRatingService {
+  @Autowired private MenuItemRatingRepository menuItemRatingRepository;
+
+  @Autowired private MenuItemReviewRepository menuItemReviewRepository;
+
+  @Lazy @Autowired private MenuItemRatingService self;
+
+  /**
+   * This method returns the rating of a menu item.
+   *
+   * @param itemId id of the menu item
+   * @return the rating, with no reviews if the item has never been reviewed
+   */
+  public MenuItemRating getRating(long itemId) {
+    return menuItemRatingRepository
+        .findById(itemId)
+        .orElseGet(() -> MenuItemRating.builder().itemId(itemId).build());
+  }
+
+  /**
+   * This method saves a new or changed review, moving its contribution from the rating it was
+   * stored with (if any) to the rating of its current item and stars.
+   *
+   * @param review the review
+   * @return the saved review
+   */
+  @Transactional
+  public MenuItemReview saveReview(MenuItemReview review) {
+    if (review.getId() != null) {
+      menuItemReviewRepository
+          .findByIdForUpdate(review.getId())
+          .ifPresent(stored -> addToRatings(List.of(MenuItemRating.of(stored, -1))));
+    }
+    MenuItemReview saved = menuItemReviewRepository.save(review);
+    addToRatings(List.of(MenuItemRating.of(saved, 1)));
+    return saved;
+  }
+
+  /**
+   * This method deletes a review and removes it from the rating of its item.
+   *
+   * @param id id of the review
+   */
+  @Transactional
+  public void deleteReview(long id) {
+    menuItemReviewRepository
+        .findByIdForUpdate(id)
+        .ifPresent(
+            stored -> {
+              menuItemReviewRepository.delete(stored);
+              addToRatings(List.of(MenuItemRating.of(stored, -1)));
+            });
+  }
+
+  /**
+   * This method adds changes to the ratings of menu items, creating ratings for items that have
+   * none yet. Changes without an item are ignored.
+   *
+   * @param changes the changes, at most one per item
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void addToRatings(Collection<MenuItemRating> changes) {
+    for (MenuItemRating change : changes) {
+      if (change.getItemId() != null && menuItemRatingRepository.addToRating(change) == 0) {
+        try {
+          self.createRating(change.getItemId());
+        } catch (DataIntegrityViolationException e) {
+          // another transaction created it first, which is just as good
+        }
+        menuItemRatingRepository.addToRating(change);
+      }
+    }
+  }
+
+  /**
+   * This method stores a rating with no reviews for a menu item, and commits it at once. A failed
+   * insert only rolls back this transaction, not the one saving the review, which then adds to
+   * the rating as usual. The empty rating is kept even if that transaction is rolled back; it
+   * reads the same as no rating.
+   *
+   * @param itemId id of the menu item
+   * @throws DataIntegrityViolationException if the item already has a rating
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void createRating(long itemId) {
+    menuItemRatingRepository.insertEmptyRating(itemId);
+  }
+}
@@ -0,0 +1,189 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import edu.ucsb.cs156.example.entities.ImportUpload;
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.ImportUploadsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Imports menu item reviews in bulk from CSV (with a header row naming the columns itemId,
+ * reviewerEmail, stars, dateReviewed and comments) or from a JSON array of reviews. Each review
+ * must pass the Bean Validation constraints of {@link MenuItemReview}.
+ *
+ * The content is an upload stored by {@link ImportUploadService}. It is read twice, one row at a
+ * time, so memory use does not grow with the number of rows: first every row is checked, and only
+ * if all are valid are they inserted, in batches of {@code app.import.batchSize} rows, all in one
+ * transaction. An import therefore either adds every review or none. That transaction also marks
+ * the upload as imported and deletes its content, so an import that is run again after it
+ * committed (e.g. because the server stopped before its job was marked finished) adds nothing.
+ */
+@Service
+public class MenuItemReviewImportService {
+  public static final String CSV = "csv";
+
+  public static final String JSON = "json";
+
+  // at most this many invalid rows are written to the job log
+  static final int MAX_REPORTED_ERRORS = 100;
+
+  private final CsvMapper csvMapper = CsvMapper.builder().findAndAddModules().build();
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private MenuItemRatingService menuItemRatingService;
+
+  @Autowired private ImportUploadService importUploadService;
+
+  @Autowired private ImportUploadsRepository importUploadsRepository;
+
+  @Autowired private Validator validator;
+
+  @Lazy @Autowired private MenuItemReviewImportService self;
+
+  @Value("${app.import.batchSize:500}")
+  private int batchSize;
+
+  /**
+   * This method imports reviews, reporting invalid rows and progress through the job context. The
+   * content of an upload that cannot be imported is deleted, since a failed job is not run again.
+   *
+   * @param format {@link #CSV} or {@link #JSON}
+   * @param uploadId id of the upload holding the reviews
+   * @param ctx the context of the job doing the import
+   * @return the number of reviews imported
+   * @throws IOException if the content cannot be read as the given format
+   * @throws IllegalArgumentException if the format is unknown, the upload does not exist, or any
+   *     review is invalid
+   */
+  public int importReviews(String format, long uploadId, JobContext ctx) throws IOException {
+    ImportUpload upload =
+        importUploadsRepository
+            .findById(uploadId)
+            .orElseThrow(() -> new IllegalArgumentException("Upload " + uploadId + " not found"));
+    if (upload.getImportedCount() != null) {
+      ctx.log("The reviews in this upload were already imported");
+      return upload.getImportedCount();
+    }
+
+    try {
+      int rows = 0;
+      int errors = 0;
+      try (InputStream content = importUploadService.open(uploadId);
+          MappingIterator<MenuItemReview> reviews = readerFor(format).readValues(content)) {
+        while (reviews.hasNextValue()) {
+          rows++;
+          String error = problems(reviews.nextValue());
+          if (!error.isEmpty() && ++errors <= MAX_REPORTED_ERRORS) {
+            ctx.log(String.format("Row %d: %s", rows, error));
+          }
+        }
+      }
+      if (errors > 0) {
+        throw new IllegalArgumentException(
+            String.format("%d of %d rows are invalid; no reviews were imported", errors, rows));
+      }
+
+      ctx.progress(0, rows);
+      int inserted = self.insertReviews(format, uploadId);
+      ctx.progress(inserted, rows);
+      return inserted;
+    } catch (IOException | RuntimeException e) {
+      importUploadService.discard(uploadId);
+      throw e;
+    }
+  }
+
+  /**
+   * This method inserts reviews that have already been checked, in one transaction. The
+   * persistence context is flushed and cleared every {@code app.import.batchSize} reviews, and
+   * Hibernate sends each flush as JDBC batches. The ratings of the reviewed items are then updated
+   * once per item, and the upload is marked as imported. The upload is locked first, so if it has
+   * already been imported nothing is inserted.
+   *
+   * @param format {@link #CSV} or {@link #JSON}
+   * @param uploadId id of the upload holding the reviews
+   * @return the number of reviews inserted, or imported earlier
+   * @throws IOException if the content cannot be read as the given format
+   */
+  @Transactional(rollbackFor = Exception.class)
+  public int insertReviews(String format, long uploadId) throws IOException {
+    ImportUpload upload =
+        importUploadsRepository
+            .findByIdForUpdate(uploadId)
+            .orElseThrow(() -> new IllegalArgumentException("Upload " + uploadId + " not found"));
+    if (upload.getImportedCount() != null) {
+      return upload.getImportedCount();
+    }
+
+    int inserted = 0;
+    Map<Long, MenuItemRating> ratings = new HashMap<>();
+    try (InputStream content = importUploadService.open(uploadId);
+        MappingIterator<MenuItemReview> reviews = readerFor(format).readValues(content)) {
+      while (reviews.hasNextValue()) {
+        MenuItemReview review = reviews.nextValue();
+        review.setId(null);
+        entityManager.persist(review);
+        ratings.merge(review.getItemId(), MenuItemRating.of(review, 1), MenuItemRating::plus);
+        if (++inserted % batchSize == 0) {
+          flush();
+        }
+      }
+    }
+    flush();
+    menuItemRatingService.addToRatings(ratings.values());
+    importUploadsRepository.markImported(uploadId, inserted);
+    importUploadService.discard(uploadId);
+    return inserted;
+  }
+
+  private void flush() {
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private ObjectReader readerFor(String format) {
+    if (CSV.equals(format)) {
+      return csvMapper
+          .readerFor(MenuItemReview.class)
+          .with(CsvSchema.emptySchema().withHeader())
+          .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+          .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+    if (JSON.equals(format)) {
+      return objectMapper.readerFor(MenuItemReview.class);
+    }
+    throw new IllegalArgumentException("Unknown import format " + format);
+  }
+
+  // what is wrong with a review, one problem per invalid field, or an empty string if nothing is
+  private String problems(MenuItemReview review) {
+    return validator.validate(review).stream()
+        .map(ConstraintViolation::getMessage)
+        .sorted()
+        .collect(Collectors.joining("; "));
+  }
+}
@@ -0,0 +1,60 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.ucsb.cs156.example.repositories.StreamingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes every row of a table as newline-delimited JSON (one JSON object per line).
+ *
+ * Rows are read through a database cursor and written one at a time, and each one is detached
+ * once written, so memory use stays the same however large the table is.
+ */
+@Service
+public class NdjsonExportService {
+  @Autowired private ObjectMapper objectMapper;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  /**
+   * This method writes every entity of a repository to a stream, one JSON object per line.
+   *
+   * @param repository the repository to export
+   * @param out where to write; it is flushed but not closed
+   * @return the number of entities written
+   * @throws IOException if writing fails, for example because the client went away
+   */
+  @Transactional(readOnly = true)
+  public long export(StreamingRepository<?, ?> repository, OutputStream out) throws IOException {
+    // the servlet response buffers its output, so there is no need to flush after every row
+    ObjectWriter writer =
+        objectMapper
+            .writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    long count = 0;
+    try (Stream<?> rows = repository.streamAllBy()) {
+      Iterator<?> iterator = rows.iterator();
+      while (iterator.hasNext()) {
+        Object row = iterator.next();
+        writer.writeValue(out, row);
+        out.write('\n');
+        entityManager.detach(row);
+        count++;
+      }
+    }
+    out.flush();
+    return count;
+  }
+}
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.services;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A small thread-safe cache whose entries expire a fixed time after they were loaded.
+ *
+ * It holds at most maxSize entries: when it is full, expired entries are dropped, and if it is
+ * still full it is emptied. Null values are not cached. Two threads that miss on the same key at
+ * once may both load it; the later one wins.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class TtlCache<K, V> {
+  private record Entry<V>(V value, long expiresAtNanos) {}
+
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+  private final int maxSize;
+  private final LongSupplier nanoClock;
+
+  public TtlCache(Duration ttl, int maxSize) {
+    this(ttl, maxSize, System::nanoTime);
+  }
+
+  TtlCache(Duration ttl, int maxSize, LongSupplier nanoClock) {
+    this.ttlNanos = ttl.toNanos();
+    this.maxSize = maxSize;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * This method returns the cached value for a key, loading it if it is missing or has expired.
+   *
+   * @param key the key
+   * @param loader loads the value of a key; may return null
+   * @return the value
+   */
+  public V get(K key, Function<K, V> loader) {
+    long now = nanoClock.getAsLong();
+    Entry<V> entry = entries.get(key);
+    if (entry != null && now - entry.expiresAtNanos() < 0) {
+      return entry.value();
+    }
+    V value = loader.apply(key);
+    if (value == null) {
+      entries.remove(key);
+      return null;
+    }
+    if (entries.size() >= maxSize) {
+      entries.values().removeIf(e -> now - e.expiresAtNanos() >= 0);
+      if (entries.size() >= maxSize) {
+        entries.clear();
+      }
+    }
+    entries.put(key, new Entry<>(value, now + ttlNanos));
+    return value;
+  }
+
+  /**
+   * This method drops the cached value for a key, so the next get loads it again.
+   *
+   * @param key the key
+   */
+  public void invalidate(K key) {
+    entries.remove(key);
+  }
+
+  /** This method drops every cached value. */
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  /**
+   * @return the number of cached values, including expired ones not yet dropped
+   */
+  public int size() {
+    return entries.size();
+  }
+}
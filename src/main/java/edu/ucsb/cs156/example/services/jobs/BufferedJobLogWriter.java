@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A JobLogWriter that does not wait on the database while a job is logging.
+ *
+ * Lines go into a bounded ring buffer that the {@link JobLogFlusher} writes out on a timer, and
+ * in the background as soon as {@code batchSize} lines are waiting. If the buffer fills up faster
+ * than it can be written, append writes it out on the calling thread instead of dropping lines.
+ */
+public class BufferedJobLogWriter extends JobLogWriter {
+  private final BlockingQueue<JobLogLine> buffer;
+  private final JobLogFlusher flusher;
+  private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+  private final Object appendLock = new Object();
+  private final Object flushLock = new Object();
+
+  public BufferedJobLogWriter(
+      JobLogLinesRepository jobLogLinesRepository,
+      long jobId,
+      long firstLineNumber,
+      int batchSize,
+      int capacity,
+      JobLogFlusher flusher) {
+    super(jobLogLinesRepository, jobId, firstLineNumber, batchSize);
+    this.buffer = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+    this.flusher = flusher;
+    flusher.register(this);
+  }
+
+  @Override
+  public void append(String message) {
+    synchronized (appendLock) {
+      JobLogLine line = nextLine(message);
+      while (!buffer.offer(line)) {
+        flush();
+      }
+    }
+    if (buffer.size() >= getBatchSize() && flushRequested.compareAndSet(false, true)) {
+      flusher.requestFlush(this);
+    }
+  }
+
+  @Override
+  public void flush() {
+    flushRequested.set(false);
+    synchronized (flushLock) {
+      List<JobLogLine> lines = new ArrayList<>();
+      buffer.drainTo(lines);
+      write(lines);
+    }
+  }
+
+  @Override
+  public void close() {
+    flusher.unregister(this);
+    flush();
+  }
+}
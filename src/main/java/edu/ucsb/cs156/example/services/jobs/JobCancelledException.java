@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+/** Thrown by {@link JobContext#checkCancelled()} when the running job has been cancelled. */
+public class JobCancelledException extends RuntimeException {
+  public JobCancelledException(long jobId) {
+    super("Job %d was cancelled".formatted(jobId));
+  }
+}
@@ -2,19 +2,127 @@ package edu.ucsb.cs156.example.services.jobs;
 
 import edu.ucsb.cs156.example.entities.Job;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
-import lombok.AllArgsConstructor;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
 
-@AllArgsConstructor
 @Slf4j
 public class JobContext {
-  private JobsRepository jobsRepository;
+  private JobLogWriter logWriter;
   private Job job;
+  private volatile boolean cancelled;
+  private final AtomicLong loggedBytes = new AtomicLong();
+
+  private final JobsRepository jobsRepository;
+  private final long progressIntervalNanos;
+  private long progressDone;
+  private long progressTotal;
+  private boolean progressSaved = true;
+  private Long progressSavedAtNanos;
+
+  /** Creates a context whose progress is only kept in memory. */
+  public JobContext(JobLogWriter logWriter, Job job) {
+    this(logWriter, job, null, 0);
+  }
+
+  /**
+   * @param logWriter where the job's log lines go
+   * @param job the job
+   * @param jobsRepository used to save progress to the job row
+   * @param progressIntervalMs the least time between two saves of the progress
+   */
+  public JobContext(
+      JobLogWriter logWriter, Job job, JobsRepository jobsRepository, long progressIntervalMs) {
+    this.logWriter = logWriter;
+    this.job = job;
+    this.jobsRepository = jobsRepository;
+    this.progressIntervalNanos = TimeUnit.MILLISECONDS.toNanos(progressIntervalMs);
+  }
 
   public void log(String message) {
     log.info("Job %s: %s".formatted(job.getId(), message));
-    String previousLog = job.getLog() == null ? "" : (job.getLog() + "\n");
-    job.setLog(previousLog + message);
-    if (jobsRepository != null) jobsRepository.save(job);
+    logWriter.append(message);
+    if (message != null) {
+      loggedBytes.addAndGet(message.getBytes(StandardCharsets.UTF_8).length);
+    }
+  }
+
+  /**
+   * @return the number of bytes (UTF-8) this job has logged so far
+   */
+  public long getLoggedBytes() {
+    return loggedBytes.get();
+  }
+
+  public void flush() {
+    logWriter.flush();
+  }
+
+  /**
+   * Reports how much of its work the job has done. The progress is saved to the job row right
+   * away the first time, then at most once per interval so that jobs can call this for every
+   * unit of work; {@link #saveProgress()} saves the latest progress when the job ends.
+   *
+   * @param done units of work done so far
+   * @param total units of work in all
+   */
+  public synchronized void progress(long done, long total) {
+    progressDone = done;
+    progressTotal = total;
+    progressSaved = false;
+    if (progressSavedAtNanos == null
+        || System.nanoTime() - progressSavedAtNanos >= progressIntervalNanos) {
+      saveProgress();
+    }
+  }
+
+  /** Saves progress reported since the last save, if any. */
+  public synchronized void saveProgress() {
+    if (progressSaved || jobsRepository == null) {
+      return;
+    }
+    jobsRepository.updateProgressById(job.getId(), progressDone, progressTotal);
+    progressSaved = true;
+    progressSavedAtNanos = System.nanoTime();
+  }
+
+  /**
+   * @return units of work done, as last reported by the job
+   */
+  public synchronized long getProgressDone() {
+    return progressDone;
+  }
+
+  /**
+   * @return units of work in all, as last reported by the job
+   */
+  public synchronized long getProgressTotal() {
+    return progressTotal;
+  }
+
+  /** Marks the job as cancelled; the job stops the next time it checks. */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Long-running jobs should check this between units of work and stop early when it is true.
+   *
+   * @return true if the job has been cancelled
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Throws if the job has been cancelled, so a job can stop with a single call.
+   *
+   * @throws JobCancelledException if the job has been cancelled
+   */
+  public void checkCancelled() {
+    if (cancelled) {
+      throw new JobCancelledException(job.getId());
+    }
   }
 }
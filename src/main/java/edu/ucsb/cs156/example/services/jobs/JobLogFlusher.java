@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes out the buffered logs of running jobs.
+ *
+ * Every {@code app.jobs.log.flushIntervalMs} milliseconds all registered writers are flushed, so
+ * log lines show up in the database shortly after they are logged even if a job logs slowly.
+ * Writers whose buffer reaches a full batch ask for an early flush, which runs on a single
+ * background thread so that jobs never wait on it.
+ */
+@Slf4j
+@Component
+public class JobLogFlusher {
+  private final Set<JobLogWriter> writers = ConcurrentHashMap.newKeySet();
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "job-log-flusher");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  public void register(JobLogWriter writer) {
+    writers.add(writer);
+  }
+
+  public void unregister(JobLogWriter writer) {
+    writers.remove(writer);
+  }
+
+  public void requestFlush(JobLogWriter writer) {
+    executor.execute(() -> flushQuietly(writer));
+  }
+
+  @Scheduled(fixedDelayString = "${app.jobs.log.flushIntervalMs:1000}")
+  public void flushAll() {
+    writers.forEach(this::flushQuietly);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flushAll();
+    executor.shutdown();
+  }
+
+  private void flushQuietly(JobLogWriter writer) {
+    try {
+      writer.flush();
+    } catch (Exception e) {
+      log.error("Failed to flush job log", e);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes new job log lines to clients as Server-Sent Events.
+ *
+ * Each subscriber remembers the next line number it needs. Every {@code
+ * app.jobs.log.streamIntervalMs} milliseconds the lines written since then are sent as "log"
+ * events whose id is the line number, so a client that reconnects with {@code Last-Event-ID} picks
+ * up where it left off. Once the job is no longer running and every line has been sent, an "end"
+ * event carrying the final status is sent and the stream is closed.
+ *
+ * Only the database reads run on the scheduler thread. The sends, which block for as long as a
+ * slow client takes to accept them, run on the "logStreamExecutor", one batch per subscriber at a
+ * time, so a slow client cannot hold up other scheduled tasks.
+ */
+@Slf4j
+@Service
+public class JobLogStreamer {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired
+  @Qualifier("logStreamExecutor")
+  private TaskExecutor logStreamExecutor;
+
+  @Value("${app.jobs.log.streamTimeoutMs:1800000}")
+  private long streamTimeoutMs;
+
+  @Value("${app.jobs.log.streamBatchSize:500}")
+  private int streamBatchSize;
+
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Starts streaming the log of a job.
+   *
+   * @param jobId id of the job
+   * @param fromLine number of the first line to send
+   * @return the emitter the lines are sent to
+   */
+  public SseEmitter subscribe(long jobId, long fromLine) {
+    SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+    Subscription subscription = new Subscription(jobId, fromLine, emitter);
+    subscriptions.add(subscription);
+    emitter.onCompletion(() -> subscriptions.remove(subscription));
+    emitter.onTimeout(() -> subscriptions.remove(subscription));
+    emitter.onError(e -> subscriptions.remove(subscription));
+    return emitter;
+  }
+
+  public int getSubscriptionCount() {
+    return subscriptions.size();
+  }
+
+  @Scheduled(fixedDelayString = "${app.jobs.log.streamIntervalMs:500}")
+  public void pushNewLines() {
+    subscriptions.forEach(this::push);
+  }
+
+  private void push(Subscription subscription) {
+    // a subscriber still receiving the previous batch is skipped until it has taken it
+    if (!subscription.sending.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      // read the status before the lines: a job's lines are all written before it stops running
+      Optional<String> status = jobsRepository.findStatusById(subscription.jobId);
+      List<JobLogLine> lines =
+          jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+              subscription.jobId, subscription.nextLine, PageRequest.of(0, streamBatchSize));
+
+      boolean finished =
+          status.isEmpty() || !List.of("pending", "running").contains(status.get());
+      String endStatus =
+          finished && lines.size() < streamBatchSize ? status.orElse("deleted") : null;
+      logStreamExecutor.execute(() -> send(subscription, lines, endStatus));
+    } catch (TaskRejectedException e) {
+      // try again at the next tick
+      subscription.sending.set(false);
+    } catch (Exception e) {
+      stop(subscription, e);
+    }
+  }
+
+  private void send(Subscription subscription, List<JobLogLine> lines, String endStatus) {
+    try {
+      for (JobLogLine line : lines) {
+        subscription.emitter.send(
+            SseEmitter.event()
+                .id(Long.toString(line.getLineNumber()))
+                .name("log")
+                .data(line.getMessage()));
+        subscription.nextLine = line.getLineNumber() + 1;
+      }
+
+      if (endStatus != null) {
+        subscription.emitter.send(SseEmitter.event().name("end").data(endStatus));
+        close(subscription);
+      }
+    } catch (Exception e) {
+      stop(subscription, e);
+    } finally {
+      subscription.sending.set(false);
+    }
+  }
+
+  private void stop(Subscription subscription, Exception e) {
+    log.info("Stopped streaming log of job {}: {}", subscription.jobId, e.getMessage());
+    subscriptions.remove(subscription);
+    subscription.emitter.completeWithError(e);
+  }
+
+  private void close(Subscription subscription) {
+    subscriptions.remove(subscription);
+    subscription.emitter.complete();
+  }
+
+  private static class Subscription {
+    private final long jobId;
+    private final SseEmitter emitter;
+    // set while a batch is being sent; reading nextLine after claiming it sees the last send
+    private final AtomicBoolean sending = new AtomicBoolean(false);
+    private long nextLine;
+
+    private Subscription(long jobId, long nextLine, SseEmitter emitter) {
+      this.jobId = jobId;
+      this.nextLine = nextLine;
+      this.emitter = emitter;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends the log lines of a single job to the job_log_lines table.
+ *
+ * Lines are numbered in the order they are appended and inserted in batches of {@code batchSize},
+ * so a job that logs N lines does about N / batchSize inserts instead of rewriting its whole log
+ * on every line. Call {@link #close()} when the job finishes to write any remaining lines.
+ *
+ * @see BufferedJobLogWriter
+ */
+public class JobLogWriter {
+  private final JobLogLinesRepository jobLogLinesRepository;
+  private final long jobId;
+  private final int batchSize;
+  private final List<JobLogLine> pending = new ArrayList<>();
+  private long nextLineNumber;
+
+  public JobLogWriter(JobLogLinesRepository jobLogLinesRepository, long jobId, int batchSize) {
+    this(jobLogLinesRepository, jobId, 0, batchSize);
+  }
+
+  /**
+   * Creates a writer whose first line gets number {@code firstLineNumber}, for a job that already
+   * has log lines, e.g. one that is run again after being interrupted.
+   *
+   * @param jobLogLinesRepository where the lines are written
+   * @param jobId id of the job
+   * @param firstLineNumber number of the first line appended
+   * @param batchSize number of lines written per insert
+   */
+  public JobLogWriter(
+      JobLogLinesRepository jobLogLinesRepository,
+      long jobId,
+      long firstLineNumber,
+      int batchSize) {
+    this.jobLogLinesRepository = jobLogLinesRepository;
+    this.jobId = jobId;
+    this.nextLineNumber = firstLineNumber;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Appends a line to the log, writing the pending batch once it reaches {@code batchSize}.
+   *
+   * @param message the line to append
+   */
+  public synchronized void append(String message) {
+    pending.add(nextLine(message));
+    if (pending.size() >= batchSize) {
+      flush();
+    }
+  }
+
+  /** Writes all pending lines to the database. */
+  public synchronized void flush() {
+    write(new ArrayList<>(pending));
+    pending.clear();
+  }
+
+  /** Writes any remaining lines; called once the job has finished or failed. */
+  public void close() {
+    flush();
+  }
+
+  protected int getBatchSize() {
+    return batchSize;
+  }
+
+  protected synchronized JobLogLine nextLine(String message) {
+    return JobLogLine.builder()
+        .jobId(jobId)
+        .lineNumber(nextLineNumber++)
+        .loggedAt(ZonedDateTime.now())
+        .message(message)
+        .build();
+  }
+
+  protected void write(List<JobLogLine> lines) {
+    if (lines.isEmpty()) {
+      return;
+    }
+    jobLogLinesRepository.saveAll(lines);
+  }
+}
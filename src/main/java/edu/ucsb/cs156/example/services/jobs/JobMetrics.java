@@ -0,0 +1,76 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records job metrics, available at {@code /actuator/metrics/<name>}:
+ *
+ * <ul>
+ *   <li>{@code jobs.queue.wait}: time from launching a job until it starts running
+ *   <li>{@code jobs.run}: how long jobs run, tagged with the job type and final status
+ *   <li>{@code jobs.finished}: number of jobs that finished, tagged with the job type and final
+ *       status (complete, error, cancelled or rejected)
+ *   <li>{@code jobs.log.bytes}: bytes written to job logs, tagged with the job type
+ * </ul>
+ */
+@Component
+public class JobMetrics {
+  @Autowired private MeterRegistry meterRegistry;
+
+  /**
+   * Returns the job type used to tag metrics; lambdas and anonymous classes are reported as
+   * "other" so that they do not create a new set of meters per class.
+   *
+   * @param jobFunction the job
+   * @return the job type
+   */
+  public static String jobType(JobContextConsumer jobFunction) {
+    Class<?> jobClass = jobFunction.getClass();
+    if (jobClass.isHidden() || jobClass.isAnonymousClass() || jobClass.isSynthetic()) {
+      return "other";
+    }
+    return jobClass.getSimpleName();
+  }
+
+  public void recordQueueWait(Duration wait) {
+    Timer.builder("jobs.queue.wait")
+        .description("Time from launching a job until it starts running")
+        .register(meterRegistry)
+        .record(wait);
+  }
+
+  public void recordRun(String jobType, String status, long durationNanos) {
+    Timer.builder("jobs.run")
+        .description("How long jobs run")
+        .tag("type", jobType)
+        .tag("status", status)
+        .register(meterRegistry)
+        .record(Duration.ofNanos(durationNanos));
+    recordFinished(jobType, status);
+  }
+
+  public void recordFinished(String jobType, String status) {
+    Counter.builder("jobs.finished")
+        .description("Number of jobs that finished")
+        .tag("type", jobType)
+        .tag("status", status)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public void recordLogBytes(String jobType, long bytes) {
+    if (bytes > 0) {
+      Counter.builder("jobs.log.bytes")
+          .description("Bytes written to job logs")
+          .baseUnit("bytes")
+          .tag("type", jobType)
+          .register(meterRegistry)
+          .increment(bytes);
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deletes old jobs and their logs according to the retention policy.
+ *
+ * Only jobs whose status is in {@code app.jobs.retention.statuses} are ever deleted, so running
+ * jobs are left alone. A job is deleted when it was last updated more than {@code
+ * app.jobs.retention.maxAgeDays} days ago, or when more than {@code app.jobs.retention.maxCount}
+ * newer jobs with those statuses exist; setting either to 0 turns that rule off.
+ *
+ * Jobs are deleted by id in batches of {@code app.jobs.retention.batchSize}, one statement per
+ * table per batch, so a purge never holds long locks on the jobs table.
+ */
+@Slf4j
+@Service
+public class JobRetentionService {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Value("${app.jobs.retention.maxAgeDays:30}")
+  private int maxAgeDays;
+
+  @Value("${app.jobs.retention.maxCount:10000}")
+  private int maxCount;
+
+  @Value("${app.jobs.retention.statuses:complete,error,rejected,cancelled}")
+  private List<String> statuses = new ArrayList<>();
+
+  @Value("${app.jobs.retention.batchSize:500}")
+  private int batchSize;
+
+  /** Applies the retention policy; runs on the {@code app.jobs.retention.cron} schedule. */
+  @Scheduled(cron = "${app.jobs.retention.cron:0 30 3 * * *}")
+  public void sweep() {
+    int deleted = 0;
+    if (maxAgeDays > 0) {
+      deleted += purgeOlderThan(ZonedDateTime.now().minusDays(maxAgeDays));
+    }
+    if (maxCount > 0) {
+      deleted += purgeAllButNewest(maxCount);
+    }
+    log.info("Job retention sweep deleted {} jobs", deleted);
+  }
+
+  /**
+   * Deletes the jobs that were last updated before a cutoff.
+   *
+   * @param cutoff jobs last updated before this are deleted
+   * @return the number of jobs deleted
+   */
+  public int purgeOlderThan(ZonedDateTime cutoff) {
+    return deleteInBatches(
+        () ->
+            jobsRepository.findIdsByStatusInAndUpdatedBefore(
+                statuses, cutoff, PageRequest.of(0, batchSize)));
+  }
+
+  /**
+   * Deletes all but the newest {@code keep} jobs.
+   *
+   * @param keep number of jobs to keep
+   * @return the number of jobs deleted
+   */
+  public int purgeAllButNewest(int keep) {
+    List<Long> oldestKept =
+        jobsRepository.findIdsByStatusInNewestFirst(statuses, PageRequest.of(keep, 1));
+    if (oldestKept.isEmpty()) {
+      return 0;
+    }
+    long maxId = oldestKept.get(0);
+    return deleteInBatches(
+        () -> jobsRepository.findIdsByStatusInUpTo(statuses, maxId, PageRequest.of(0, batchSize)));
+  }
+
+  private int deleteInBatches(Supplier<List<Long>> nextBatch) {
+    int deleted = 0;
+    List<Long> ids = nextBatch.get();
+    while (!ids.isEmpty()) {
+      jobLogLinesRepository.deleteByJobIdIn(ids);
+      deleted += jobsRepository.deleteByIdIn(ids);
+      if (ids.size() < batchSize) {
+        break;
+      }
+      ids = nextBatch.get();
+    }
+    return deleted;
+  }
+}
@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import edu.ucsb.cs156.example.repositories.JobSchedulesRepository;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Queues the runs of {@link JobSchedule}s as they come due.
+ *
+ * Every {@code app.jobs.schedules.pollIntervalMs} milliseconds each server locks due schedules
+ * one at a time, queues a job for each and moves the schedule to its next run, all in one
+ * transaction, so a run is queued exactly once however many servers are polling. Cron expressions
+ * are evaluated in the {@code app.jobs.schedules.zone} time zone.
+ */
+@Slf4j
+@Service
+public class JobScheduler {
+  public static final String RUN_ONCE = "RUN_ONCE";
+  public static final String SKIP = "SKIP";
+
+  @Autowired private JobSchedulesRepository jobSchedulesRepository;
+
+  @Autowired private JobService jobService;
+
+  @Lazy @Autowired private JobScheduler self;
+
+  @Value("${app.jobs.schedules.zone:America/Los_Angeles}")
+  private String zone;
+
+  @Value("${app.jobs.schedules.misfireThresholdMs:60000}")
+  private long misfireThresholdMs;
+
+  @Scheduled(fixedDelayString = "${app.jobs.schedules.pollIntervalMs:15000}")
+  public void fireDueSchedules() {
+    ZonedDateTime now = ZonedDateTime.now(ZoneId.of(zone));
+    while (self.fireNextDue(now).isPresent()) {
+      // keep going until no schedule is due
+    }
+  }
+
+  /**
+   * Queues the run of the earliest due schedule, unless it misfired and its policy is "SKIP", and
+   * moves the schedule to its next run.
+   *
+   * @param now the current time
+   * @return the schedule, or empty if none is due
+   */
+  @Transactional
+  public Optional<JobSchedule> fireNextDue(ZonedDateTime now) {
+    List<JobSchedule> due = jobSchedulesRepository.findDueForUpdate(now, PageRequest.of(0, 1));
+    if (due.isEmpty()) {
+      return Optional.empty();
+    }
+    JobSchedule schedule = due.get(0);
+    boolean misfired =
+        schedule.getNextRunAt().isBefore(now.minus(Duration.ofMillis(misfireThresholdMs)));
+    if (misfired && SKIP.equals(schedule.getMisfirePolicy())) {
+      log.info(
+          "Skipping run of schedule {} that was due at {}",
+          schedule.getName(),
+          schedule.getNextRunAt());
+    } else {
+      Job job = jobService.enqueue(schedule.getJobClass(), schedule.getPayload());
+      schedule.setLastJobId(job.getId());
+      schedule.setLastRunAt(now);
+    }
+    schedule.setNextRunAt(nextRun(schedule.getCron(), now));
+    return Optional.of(jobSchedulesRepository.save(schedule));
+  }
+
+  /**
+   * Returns the first time after {@code after} that a cron expression matches.
+   *
+   * @param cron a Spring cron expression
+   * @param after the time to start from
+   * @return the next matching time, or null if the expression never matches again
+   * @throws IllegalArgumentException if the cron expression is not valid
+   */
+  public ZonedDateTime nextRun(String cron, ZonedDateTime after) {
+    return CronExpression.parse(cron).next(after.withZoneSameInstant(ZoneId.of(zone)));
+  }
+}
@@ -1,53 +1,616 @@
 package edu.ucsb.cs156.example.services.jobs;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.models.JobLogRange;
+import edu.ucsb.cs156.example.models.PendingJobCandidate;
+import edu.ucsb.cs156.example.models.UserJobCount;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 public class JobService {
+  /** Lane for jobs an admin is waiting on, such as the ones launched from the UI. */
+  public static final String INTERACTIVE = "interactive";
+
+  /** Lane for background work, such as the runs of scheduled jobs. */
+  public static final String BATCH = "batch";
+
+  public static final List<String> LANES = List.of(INTERACTIVE, BATCH);
+
   @Autowired private JobsRepository jobsRepository;
 
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
   @Autowired private CurrentUserService currentUserService;
 
+  @Autowired private JobLogFlusher jobLogFlusher;
+
+  @Autowired private JobMetrics jobMetrics;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private AutowireCapableBeanFactory beanFactory;
+
+  @Autowired
+  @Qualifier("jobExecutor")
+  private ThreadPoolTaskExecutor jobExecutor;
+
   @Lazy @Autowired private JobService self;
 
+  @Value("${app.jobs.log.batchSize:50}")
+  private int logBatchSize;
+
+  @Value("${app.jobs.log.buffered:true}")
+  private boolean bufferedLogs;
+
+  @Value("${app.jobs.log.bufferCapacity:1000}")
+  private int logBufferCapacity;
+
+  @Value("${app.jobs.progress.persistIntervalMs:2000}")
+  private long progressIntervalMs;
+
+  @Value("${app.jobs.nodeId:#{T(java.util.UUID).randomUUID().toString()}}")
+  private String nodeId;
+
+  @Value("${app.jobs.lease.durationMs:60000}")
+  private long leaseDurationMs;
+
+  @Value("${app.jobs.lanes.interactiveWeight:3}")
+  private long interactiveWeight;
+
+  @Value("${app.jobs.lanes.batchWeight:1}")
+  private long batchWeight;
+
+  private final AtomicLong dispatchCount = new AtomicLong();
+
+  private final Map<Long, RunningJob> runningJobs = new ConcurrentHashMap<>();
+
+  // jobs this server has claimed and not yet finished, waiting for a thread or running
+  private final Set<Long> heldJobIds = ConcurrentHashMap.newKeySet();
+
+  /**
+   * A job running on this server. Its thread is interrupted only while the job is still running:
+   * {@link #cancel()} and {@link #finish()} hold the same lock, so a cancel that arrives as the
+   * job ends cannot interrupt the next job the pooled thread picks up.
+   */
+  static class RunningJob {
+    private final JobContext context;
+    private final Thread thread;
+    private boolean done;
+
+    RunningJob(JobContext context, Thread thread) {
+      this.context = context;
+      this.thread = thread;
+    }
+
+    JobContext context() {
+      return context;
+    }
+
+    synchronized void cancel() {
+      if (!done) {
+        context.cancel();
+        thread.interrupt();
+      }
+    }
+
+    // called on the job's own thread once the job has stopped running
+    synchronized void finish() {
+      done = true;
+      Thread.interrupted();
+    }
+  }
+
+  /**
+   * Queues a job and starts it on this server right away if a thread is free.
+   *
+   * Jobs that are plain data classes (such as TestJob) are stored with the job row as JSON, so
+   * any server's {@link #pollQueue()} can run a pending job, or run one again when the server
+   * running it stops. Lambdas and jobs that cannot be serialized only run on this server; if the
+   * executor is full they are recorded with status "rejected", and if this server stops they are
+   * marked with status "error".
+   *
+   * A server running a job holds a lease on it ({@code lease_owner}, {@code lease_expires_at})
+   * that {@link #maintainLeases()} renews; once a lease has expired, the job is requeued.
+   *
+   * @param jobFunction the job to run
+   * @return the job
+   */
   public Job runAsJob(JobContextConsumer jobFunction) {
-    Job job = Job.builder().createdBy(currentUserService.getUser()).status("running").build();
+    return runAsJob(jobFunction, INTERACTIVE);
+  }
+
+  /**
+   * Queues a job in a lane and starts it on this server right away if a thread is free; see
+   * {@link #runAsJob(JobContextConsumer)} and {@link #claimNextJob()}.
+   *
+   * @param jobFunction the job to run
+   * @param lane {@link #INTERACTIVE} or {@link #BATCH}
+   * @return the job; if it is still pending, with its position in the queue
+   */
+  public Job runAsJob(JobContextConsumer jobFunction, String lane) {
+    Job job =
+        Job.builder()
+            .createdBy(currentUserService.getUser())
+            .status("pending")
+            .lane(lane)
+            .build();
+    String payload = toPayload(jobFunction);
+    if (payload != null) {
+      job.setJobClass(jobFunction.getClass().getName());
+      job.setPayload(payload);
+    }
+
+    jobsRepository.save(job);
+    // a stored job waits for whichever server has a free thread first
+    if (payload != null && !hasIdleThread()) {
+      return withQueuePosition(job);
+    }
+    // another server (or the poller) may have claimed a stored job already
+    if (jobsRepository.claimById(job.getId(), nodeId, leaseExpiry()) == 0) {
+      return job;
+    }
+    heldJobIds.add(job.getId());
+    job.setStatus("running");
+    try {
+      self.runJobAsync(job, jobFunction);
+    } catch (TaskRejectedException e) {
+      heldJobIds.remove(job.getId());
+      if (payload != null) {
+        // leave it in the queue for the poller to start once a thread is free
+        jobsRepository.releaseById(job.getId());
+        job.setStatus("pending");
+        withQueuePosition(job);
+      } else {
+        finishWithoutRunning(
+            job,
+            JobMetrics.jobType(jobFunction),
+            "rejected",
+            "Job rejected: too many jobs are already running or waiting to run");
+      }
+    }
+
+    return job;
+  }
+
+  /**
+   * Sets the position of a pending job in its lane's queue: 1 for the next job of the lane.
+   * Because {@link #claimNextJob()} alternates between users, this is an upper bound on how many
+   * jobs of the lane start first.
+   *
+   * @param job the job
+   * @return the job
+   */
+  public Job withQueuePosition(Job job) {
+    if ("pending".equals(job.getStatus())) {
+      String lane = job.getLane() == null ? INTERACTIVE : job.getLane();
+      job.setQueuePosition(jobsRepository.countPendingAhead(lane, job.getId()) + 1);
+    }
+    return job;
+  }
+
+  /**
+   * Adds a stored job to the batch lane of the queue without starting it; the first server with
+   * an idle thread runs it. Used for the runs of scheduled jobs.
+   *
+   * @param jobClass class name of the JobContextConsumer
+   * @param payload the JobContextConsumer as JSON
+   * @return the queued job
+   */
+  public Job enqueue(String jobClass, String payload) {
+    Job job =
+        Job.builder()
+            .status("pending")
+            .lane(BATCH)
+            .jobClass(jobClass)
+            .payload(payload)
+            .build();
+    return jobsRepository.save(job);
+  }
+
+  /**
+   * Starts pending jobs from the queue while the executor has idle threads; runs every {@code
+   * app.jobs.queue.pollIntervalMs} milliseconds.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.queue.pollIntervalMs:1000}")
+  public void pollQueue() {
+    while (hasIdleThread()) {
+      Optional<Job> claimed = self.claimNextJob();
+      if (claimed.isEmpty()) {
+        return;
+      }
+      Job job = claimed.get();
+      JobContextConsumer jobFunction;
+      try {
+        jobFunction = loadJob(job.getJobClass(), job.getPayload());
+      } catch (Exception e) {
+        finishWithoutRunning(job, "other", "error", "Job could not be loaded: " + e.getMessage());
+        continue;
+      }
+      heldJobIds.add(job.getId());
+      try {
+        self.runJobAsync(job, jobFunction);
+      } catch (TaskRejectedException e) {
+        heldJobIds.remove(job.getId());
+        jobsRepository.releaseById(job.getId());
+        return;
+      }
+    }
+  }
+
+  /**
+   * Claims the next pending job by marking it running.
+   *
+   * Out of every {@code interactiveWeight + batchWeight} jobs claimed, {@code
+   * interactiveWeight} are taken from the interactive lane first and the rest from the batch lane
+   * first, so neither lane starves the other. Within a lane, the oldest job of the user with the
+   * fewest running jobs goes first, so one admin launching hundreds of jobs does not hold up
+   * everyone else. The row is read with {@code SELECT ... FOR UPDATE SKIP LOCKED} where the
+   * database supports it (PostgreSQL), so servers polling at the same time claim different jobs;
+   * on H2 a plain {@code FOR UPDATE} is used instead.
+   *
+   * @return the claimed job, or empty if no job is waiting
+   */
+  @Transactional
+  public Optional<Job> claimNextJob() {
+    // a null user id stands for jobs queued by schedules
+    Map<Long, Long> runningPerUser = new HashMap<>();
+    for (UserJobCount count : jobsRepository.countRunningPerUser()) {
+      runningPerUser.put(count.getUserId(), count.getCount());
+    }
+
+    for (String lane : laneOrder()) {
+      List<PendingJobCandidate> candidates =
+          new ArrayList<>(jobsRepository.findOldestPendingPerUser(lane));
+      candidates.sort(
+          Comparator.comparingLong(
+                  (PendingJobCandidate c) -> runningPerUser.getOrDefault(c.getUserId(), 0L))
+              .thenComparingLong(PendingJobCandidate::getJobId));
+      for (PendingJobCandidate candidate : candidates) {
+        Optional<Job> locked = jobsRepository.findPendingByIdForUpdate(candidate.getJobId());
+        if (locked.isPresent()) {
+          dispatchCount.incrementAndGet();
+          Job job = locked.get();
+          job.setStatus("running");
+          job.setLeaseOwner(nodeId);
+          job.setLeaseExpiresAt(leaseExpiry());
+          return Optional.of(jobsRepository.save(job));
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  private List<String> laneOrder() {
+    long turn = dispatchCount.get() % (interactiveWeight + batchWeight);
+    return turn < interactiveWeight ? List.of(INTERACTIVE, BATCH) : List.of(BATCH, INTERACTIVE);
+  }
+
+  /**
+   * Renews the leases on the jobs this server is running or has queued on its executor, passes
+   * on cancellations requested through other servers, and requeues the jobs whose lease has
+   * expired because the server running them stopped (or lost them). Runs every {@code
+   * app.jobs.lease.heartbeatMs} milliseconds, starting when the application starts, on the
+   * "leaseScheduler" so that other scheduled tasks cannot delay it.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.lease.heartbeatMs:15000}", scheduler = "leaseScheduler")
+  public void maintainLeases() {
+    List<Long> held = List.copyOf(heldJobIds);
+    if (!held.isEmpty()) {
+      jobsRepository.renewLeases(nodeId, held, leaseExpiry());
+    }
+
+    for (Long jobId : jobsRepository.findCancelRequestedIdsByLeaseOwner(nodeId)) {
+      RunningJob running = runningJobs.get(jobId);
+      if (running != null && !running.context().isCancelled()) {
+        running.cancel();
+      }
+    }
+
+    ZonedDateTime now = ZonedDateTime.now();
+    int requeued = jobsRepository.requeueExpired(now);
+    int failed = jobsRepository.failExpired(now);
+    if (requeued > 0 || failed > 0) {
+      log.info("Requeued {} jobs with expired leases; {} could not be recovered", requeued, failed);
+    }
+  }
 
+  private ZonedDateTime leaseExpiry() {
+    return ZonedDateTime.now().plus(Duration.ofMillis(leaseDurationMs));
+  }
+
+  private boolean hasIdleThread() {
+    int busy = jobExecutor.getActiveCount() + jobExecutor.getQueueSize();
+    return busy < jobExecutor.getMaxPoolSize();
+  }
+
+  private void finishWithoutRunning(Job job, String jobType, String status, String message) {
+    job.setStatus(status);
+    JobLogWriter logWriter =
+        new JobLogWriter(
+            jobLogLinesRepository, job.getId(), nextLineNumber(job.getId()), logBatchSize);
+    logWriter.append(message);
+    logWriter.close();
     jobsRepository.save(job);
-    self.runJobAsync(job, jobFunction);
+    jobMetrics.recordFinished(jobType, job.getStatus());
+  }
+
+  // jobs that are plain data classes are stored as JSON so they can be run again after a restart
+  private String toPayload(JobContextConsumer jobFunction) {
+    if ("other".equals(JobMetrics.jobType(jobFunction))) {
+      return null;
+    }
+    try {
+      return objectMapper.writeValueAsString(jobFunction);
+    } catch (JsonProcessingException e) {
+      log.warn("{} cannot be stored, so it will not survive a restart", jobFunction.getClass(), e);
+      return null;
+    }
+  }
 
+  /**
+   * Recreates a stored job from its class name and JSON payload. Fields of the job marked
+   * {@code @Autowired} (and {@code @JsonIgnore}, so they are not stored) are set from the
+   * application context.
+   *
+   * @param jobClassName class name of the JobContextConsumer
+   * @param payload the JobContextConsumer as JSON
+   * @return the job
+   * @throws Exception if the class does not exist, is not a JobContextConsumer, or the payload
+   *     cannot be read
+   */
+  public JobContextConsumer loadJob(String jobClassName, String payload) throws Exception {
+    Class<?> jobClass = Class.forName(jobClassName);
+    if (!JobContextConsumer.class.isAssignableFrom(jobClass)) {
+      throw new IllegalArgumentException(jobClassName + " is not a JobContextConsumer");
+    }
+    JobContextConsumer job = (JobContextConsumer) objectMapper.readValue(payload, jobClass);
+    beanFactory.autowireBean(job);
     return job;
   }
 
-  @Async
+  private long nextLineNumber(long jobId) {
+    return jobLogLinesRepository.findMaxLineNumberByJobId(jobId).map(n -> n + 1).orElse(0L);
+  }
+
+  /**
+   * Runs a job this server has claimed. A job that throws, even an Error, is saved with status
+   * "error"; an Error is then rethrown. Once it returns or throws, however it ends, its lease is no
+   * longer renewed: a job whose status could not be saved keeps status "running" until the lease
+   * expires, and is then requeued by {@link #maintainLeases()}.
+   *
+   * @param job the claimed job
+   * @param jobFunction the job to run
+   */
+  @Async("jobExecutor")
   public void runJobAsync(Job job, JobContextConsumer jobFunction) {
-    JobContext context = new JobContext(jobsRepository, job);
+    try {
+      runJob(job, jobFunction);
+    } finally {
+      heldJobIds.remove(job.getId());
+    }
+  }
+
+  private void runJob(Job job, JobContextConsumer jobFunction) {
+    JobLogWriter logWriter = createLogWriter(job);
+    JobContext context = new JobContext(logWriter, job, jobsRepository, progressIntervalMs);
+    String jobType = JobMetrics.jobType(jobFunction);
+    if (job.getCreatedAt() != null) {
+      jobMetrics.recordQueueWait(Duration.between(job.getCreatedAt(), ZonedDateTime.now()));
+    }
+    long startNanos = System.nanoTime();
+    RunningJob running = new RunningJob(context, Thread.currentThread());
+    runningJobs.put(job.getId(), running);
+    Error error = null;
 
     try {
+      // the job may have been cancelled while it was waiting for a thread
+      if (jobsRepository.findCancelRequestedById(job.getId()).orElse(false)) {
+        context.cancel();
+      }
+      context.checkCancelled();
       jobFunction.accept(context);
+      job.setStatus("complete");
     } catch (Exception e) {
+      // clear the interrupt sent by cancelJob so the log and status can still be saved
+      Thread.interrupted();
+      if (context.isCancelled()) {
+        job.setStatus("cancelled");
+        job.setCancelRequested(true);
+        context.log("Job cancelled");
+      } else {
+        job.setStatus("error");
+        context.log(e.getMessage());
+      }
+    } catch (Error e) {
+      // save the status before rethrowing; a job left "running" would be requeued when its lease
+      // expires, and one that always throws an Error would then be retried forever
+      Thread.interrupted();
+      log.error("Job {} failed", job.getId(), e);
       job.setStatus("error");
-      context.log(e.getMessage());
-      return;
+      context.log(e.toString());
+      error = e;
+    } finally {
+      running.finish();
+      runningJobs.remove(job.getId(), running);
+      logWriter.close();
+      context.saveProgress();
     }
 
-    job.setStatus("complete");
-    jobsRepository.save(job);
+    // a job whose lease expired may have been requeued and run by another server since
+    int updated =
+        jobsRepository.finishById(
+            job.getId(), nodeId, job.getStatus(), job.isCancelRequested(), ZonedDateTime.now());
+    if (updated == 0) {
+      log.warn("Job {} is no longer leased by this server; its status was not saved", job.getId());
+    }
+    jobMetrics.recordRun(jobType, job.getStatus(), System.nanoTime() - startNanos);
+    jobMetrics.recordLogBytes(jobType, context.getLoggedBytes());
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Requests cancellation of a pending or running job. A job still in the queue is cancelled right
+   * away and a job waiting for a thread is cancelled as soon as it starts; a job already running
+   * is told through its {@link JobContext} and its thread is interrupted so that sleeps and
+   * blocking waits end early. That happens right away on this server, and at the next {@link
+   * #maintainLeases()} on the server running the job otherwise.
+   *
+   * @param jobId id of the job
+   * @return true if the job was pending or running and has been asked to stop
+   */
+  public boolean cancelJob(long jobId) {
+    if (jobsRepository.cancelPendingById(jobId, ZonedDateTime.now()) == 1) {
+      return true;
+    }
+    if (jobsRepository.requestCancelById(jobId) == 0) {
+      return false;
+    }
+    RunningJob running = runningJobs.get(jobId);
+    if (running != null) {
+      running.cancel();
+    }
+    return true;
+  }
+
+  private JobLogWriter createLogWriter(Job job) {
+    // a job run again after a restart keeps the lines it logged before
+    long firstLineNumber = nextLineNumber(job.getId());
+    if (bufferedLogs) {
+      return new BufferedJobLogWriter(
+          jobLogLinesRepository,
+          job.getId(),
+          firstLineNumber,
+          logBatchSize,
+          logBufferCapacity,
+          jobLogFlusher);
+    }
+    return new JobLogWriter(jobLogLinesRepository, job.getId(), firstLineNumber, logBatchSize);
   }
 
   public String getJobLogs(Long jobId) {
-    Job job =
-        jobsRepository
-            .findById(jobId)
-            .orElseThrow(() -> new IllegalArgumentException("Job not found"));
+    return String.join("\n", getJobLogRange(jobId, 0, null).getLines());
+  }
+
+  /**
+   * Returns up to {@code limit} lines of a job's log, starting at line number {@code offset}.
+   *
+   * @param jobId id of the job
+   * @param offset number of the first line to return
+   * @param limit maximum number of lines to return, or null for all remaining lines
+   * @return the requested lines
+   */
+  public JobLogRange getJobLogRange(Long jobId, long offset, Integer limit) {
+    requireJob(jobId);
+    if (limit != null && limit < 1) {
+      return toRange(List.of(), offset);
+    }
+
+    Pageable pageable = limit == null ? Pageable.unpaged() : PageRequest.of(0, limit);
+    List<JobLogLine> lines =
+        jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, offset, pageable);
+    if (lines.isEmpty() && !jobLogLinesRepository.existsByJobId(jobId)) {
+      List<String> legacy = legacyLogLines(jobId);
+      int from = (int) Math.min(Math.max(offset, 0), legacy.size());
+      int to = limit == null ? legacy.size() : (int) Math.min((long) from + limit, legacy.size());
+      return legacyRange(legacy.subList(from, to), from);
+    }
+
+    return toRange(lines, offset);
+  }
 
-    String log = job.getLog();
-    return log != null ? log : "";
+  /**
+   * Returns the last {@code count} lines of a job's log.
+   *
+   * @param jobId id of the job
+   * @param count number of lines to return
+   * @return the requested lines
+   */
+  public JobLogRange getJobLogTail(Long jobId, int count) {
+    requireJob(jobId);
+    if (count < 1) {
+      return toRange(List.of(), 0);
+    }
+
+    List<JobLogLine> lines =
+        new ArrayList<>(
+            jobLogLinesRepository.findByJobIdOrderByLineNumberDesc(
+                jobId, PageRequest.of(0, count)));
+    if (lines.isEmpty()) {
+      List<String> legacy = legacyLogLines(jobId);
+      int from = Math.max(legacy.size() - count, 0);
+      return legacyRange(legacy.subList(from, legacy.size()), from);
+    }
+
+    Collections.reverse(lines);
+    return toRange(lines, 0);
+  }
+
+  private void requireJob(Long jobId) {
+    if (!jobsRepository.existsById(jobId)) {
+      throw new IllegalArgumentException("Job not found");
+    }
+  }
+
+  // jobs that ran before logs were stored line by line keep their log on the job itself
+  private List<String> legacyLogLines(Long jobId) {
+    return jobsRepository
+        .findLogById(jobId)
+        .filter(log -> !log.isEmpty())
+        .map(log -> List.of(log.split("\n", -1)))
+        .orElse(List.of());
+  }
+
+  private JobLogRange legacyRange(List<String> lines, long offset) {
+    return JobLogRange.builder()
+        .offset(offset)
+        .nextOffset(offset + lines.size())
+        .lines(lines)
+        .build();
+  }
+
+  private JobLogRange toRange(List<JobLogLine> lines, long offset) {
+    if (lines.isEmpty()) {
+      return JobLogRange.builder().offset(offset).nextOffset(offset).lines(List.of()).build();
+    }
+    return JobLogRange.builder()
+        .offset(lines.get(0).getLineNumber())
+        .nextOffset(lines.get(lines.size() - 1).getLineNumber() + 1)
+        .lines(lines.stream().map(JobLogLine::getMessage).toList())
+        .build();
   }
 }
@@ -0,0 +1,112 @@
+package edu.ucsb.cs156.example.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ControllerMetricsTests {
+
+  private MockClock clock;
+
+  private MeterRegistry meterRegistry;
+
+  private ControllerMetrics controllerMetrics;
+
+  @BeforeEach
+  public void setup() {
+    clock = new MockClock();
+    meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+    controllerMetrics = new ControllerMetrics();
+    ReflectionTestUtils.setField(controllerMetrics, "meterRegistry", meterRegistry);
+  }
+
+  private Timer timer(String outcome, String exception) {
+    return meterRegistry
+        .get("controller.requests")
+        .tags(
+            "controller", "ArticlesController",
+            "method", "allArticles",
+            "outcome", outcome,
+            "exception", exception)
+        .timer();
+  }
+
+  private LongTaskTimer active() {
+    return meterRegistry
+        .get("controller.requests.active")
+        .tags("controller", "ArticlesController", "method", "allArticles")
+        .longTaskTimer();
+  }
+
+  @Test
+  public void record_times_a_successful_call_and_counts_it_as_active_while_it_runs()
+      throws Throwable {
+    Object result = new Object();
+
+    Object returned =
+        controllerMetrics.record(
+            "ArticlesController",
+            "allArticles",
+            () -> {
+              assertEquals(1, active().activeTasks());
+              clock.add(250, TimeUnit.MILLISECONDS);
+              return result;
+            });
+
+    assertSame(result, returned);
+    assertEquals(0, active().activeTasks());
+    assertEquals(1, timer("success", "none").count());
+    assertEquals(250.0, timer("success", "none").totalTime(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void record_tags_a_call_that_throws_with_its_exception() {
+    EntityNotFoundException thrown = new EntityNotFoundException("no article");
+
+    EntityNotFoundException e =
+        assertThrows(
+            EntityNotFoundException.class,
+            () ->
+                controllerMetrics.record(
+                    "ArticlesController",
+                    "allArticles",
+                    () -> {
+                      clock.add(10, TimeUnit.MILLISECONDS);
+                      throw thrown;
+                    }));
+
+    assertSame(thrown, e);
+    assertEquals(0, active().activeTasks());
+    assertEquals(1, timer("error", "EntityNotFoundException").count());
+    assertEquals(10.0, timer("error", "EntityNotFoundException").totalTime(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void record_tags_an_anonymous_exception_with_its_class_name() {
+    RuntimeException thrown = new RuntimeException() {};
+
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            controllerMetrics.record(
+                "ArticlesController",
+                "allArticles",
+                () -> {
+                  throw thrown;
+                }));
+
+    assertEquals(1, timer("error", thrown.getClass().getName()).count());
+  }
+}
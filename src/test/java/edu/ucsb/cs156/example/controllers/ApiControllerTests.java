@@ -2,17 +2,21 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,6 +36,40 @@ public class ApiControllerTests extends ControllerTestCase {
                 assertEquals(expected,result);
         }       
 
+        @Test
+        public void keyset_request_keeps_the_limit_between_1_and_the_maximum() {
+                ApiController apiController = new DummyController();
+                assertEquals(PageRequest.of(0, 2), apiController.keysetRequest(2));
+                assertEquals(PageRequest.of(0, 1), apiController.keysetRequest(0));
+                assertEquals(PageRequest.of(0, 1), apiController.keysetRequest(-5));
+                assertEquals(PageRequest.of(0, 100), apiController.keysetRequest(100));
+                assertEquals(PageRequest.of(0, 100), apiController.keysetRequest(500));
+        }
+
+        @Test
+        public void keyset_page_with_more_rows_has_the_key_of_its_last_row_as_next() {
+                ApiController apiController = new DummyController();
+                SliceImpl<String> slice = new SliceImpl<>(List.of("a", "bb"), PageRequest.of(0, 2), true);
+                KeysetPage<String> page = apiController.keysetPage(slice, String::length);
+                assertEquals(new KeysetPage<>(List.of("a", "bb"), "2"), page);
+        }
+
+        @Test
+        public void keyset_page_without_more_rows_has_no_next() {
+                ApiController apiController = new DummyController();
+                SliceImpl<String> slice = new SliceImpl<>(List.of("a", "bb"), PageRequest.of(0, 2), false);
+                KeysetPage<String> page = apiController.keysetPage(slice, String::length);
+                assertEquals(new KeysetPage<>(List.of("a", "bb"), null), page);
+        }
+
+        @Test
+        public void keyset_page_past_the_last_row_is_empty_and_has_no_next() {
+                ApiController apiController = new DummyController();
+                SliceImpl<String> slice = new SliceImpl<>(List.of(), PageRequest.of(0, 2), false);
+                KeysetPage<String> page = apiController.keysetPage(slice, String::length);
+                assertEquals(new KeysetPage<>(List.of(), null), page);
+        }
+
         @Test
         public void test_that_dummy_controller_returns_String1_when_1_is_passed() throws Exception {
 
@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -20,6 +21,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -40,8 +43,10 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import edu.ucsb.cs156.example.entities.HelpRequest;
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 
 @WebMvcTest(controllers = HelpRequestController.class)
@@ -50,6 +55,9 @@ public class HelpRequestControllerTests extends ControllerTestCase {
     @MockBean
     HelpRequestRepository helpRequestRepository;
 
+    @MockBean
+    NdjsonExportService ndjsonExportService;
+
     @MockBean
     UserRepository userRepository;
 
@@ -347,6 +355,26 @@ public class HelpRequestControllerTests extends ControllerTestCase {
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("HelpRequest with id 15 not found", json.get("message"));
         }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_help_requests_a_page_at_a_time() throws Exception {
+        // arrange
+        HelpRequest first = HelpRequest.builder().id(1L).build();
+        HelpRequest second = HelpRequest.builder().id(2L).build();
+        when(helpRequestRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 2))))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/helprequest/all?limit=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        KeysetPage<HelpRequest> expected = new KeysetPage<>(List.of(first, second), "2");
+        String expectedJson = mapper.writeValueAsString(expected);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
 }
 
 
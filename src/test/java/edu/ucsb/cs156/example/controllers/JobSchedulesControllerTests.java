@@ -0,0 +1,438 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.repositories.JobSchedulesRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.jobs.JobScheduler;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import jakarta.servlet.ServletException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = JobSchedulesController.class)
+@Import(JobScheduler.class)
+public class JobSchedulesControllerTests extends ControllerTestCase {
+
+  @MockitoBean JobSchedulesRepository jobSchedulesRepository;
+
+  @MockitoBean JobService jobService;
+
+  @MockitoBean UserRepository userRepository;
+
+  private JobSchedule nightly() {
+    return JobSchedule.builder()
+        .id(3L)
+        .name("nightly")
+        .jobClass(TestJob.class.getName())
+        .payload("{}")
+        .cron("0 0 3 * * *")
+        .misfirePolicy("RUN_ONCE")
+        .enabled(true)
+        .build();
+  }
+
+  @Test
+  public void logged_out_users_cannot_get_all() throws Exception {
+    mockMvc.perform(get("/api/jobs/schedules/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_get_all() throws Exception {
+    mockMvc.perform(get("/api/jobs/schedules/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_post() throws Exception {
+    mockMvc
+        .perform(post("/api/jobs/schedules/post").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_all_schedules() throws Exception {
+    // arrange
+    List<JobSchedule> schedules = List.of(nightly());
+    when(jobSchedulesRepository.findAll()).thenReturn(schedules);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/schedules/all")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(
+        mapper.writeValueAsString(schedules), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_schedule_by_id() throws Exception {
+    // arrange
+    when(jobSchedulesRepository.findById(3L)).thenReturn(Optional.of(nightly()));
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/schedules?id=3")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(
+        mapper.writeValueAsString(nightly()), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_gets_404_for_missing_schedule() throws Exception {
+    // arrange
+    when(jobSchedulesRepository.findById(3L)).thenReturn(Optional.empty());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/schedules?id=3"))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("JobSchedule with id 3 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_post_schedule() throws Exception {
+    // arrange
+    when(jobSchedulesRepository.save(any(JobSchedule.class))).thenAnswer(i -> i.getArgument(0));
+    ArgumentCaptor<JobSchedule> captor = ArgumentCaptor.forClass(JobSchedule.class);
+
+    // act
+    mockMvc
+        .perform(
+            post("/api/jobs/schedules/post")
+                .param("name", "nightly")
+                .param("job", "TestJob")
+                .param("payload", "{\"sleepMs\":10}")
+                .param("cron", "0 0 3 * * *")
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    verify(jobService, times(1)).loadJob(TestJob.class.getName(), "{\"sleepMs\":10}");
+    verify(jobSchedulesRepository, times(1)).save(captor.capture());
+    JobSchedule saved = captor.getValue();
+    assertEquals("nightly", saved.getName());
+    assertEquals(TestJob.class.getName(), saved.getJobClass());
+    assertEquals("RUN_ONCE", saved.getMisfirePolicy());
+    assertTrue(saved.isEnabled());
+    assertEquals(3, saved.getNextRunAt().getHour());
+    assertTrue(saved.getNextRunAt().isAfter(ZonedDateTime.now()));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_cannot_post_schedule_with_bad_misfire_policy() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/jobs/schedules/post")
+                .param("name", "nightly")
+                .param("job", "TestJob")
+                .param("cron", "0 0 3 * * *")
+                .param("misfirePolicy", "ALWAYS")
+                .with(csrf()))
+        .andExpect(status().isBadRequest());
+
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_cannot_post_schedule_with_bad_cron() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/jobs/schedules/post")
+                .param("name", "nightly")
+                .param("job", "TestJob")
+                .param("cron", "every night")
+                .with(csrf()))
+        .andExpect(status().isBadRequest());
+
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_cannot_post_schedule_for_unknown_job() throws Exception {
+    // arrange
+    when(jobService.loadJob(eq("edu.ucsb.cs156.example.jobs.NoSuchJob"), any()))
+        .thenThrow(new ClassNotFoundException("edu.ucsb.cs156.example.jobs.NoSuchJob"));
+
+    // act and assert
+    mockMvc
+        .perform(
+            post("/api/jobs/schedules/post")
+                .param("name", "nightly")
+                .param("job", "NoSuchJob")
+                .param("cron", "0 0 3 * * *")
+                .with(csrf()))
+        .andExpect(status().isBadRequest());
+
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_update_schedule() throws Exception {
+    // arrange
+    JobSchedule existing = nightly();
+    JobSchedule incoming = nightly();
+    incoming.setName("hourly");
+    incoming.setJobClass("ignored");
+    incoming.setPayload("{\"fail\":true}");
+    incoming.setCron("0 0 * * * *");
+    incoming.setMisfirePolicy("SKIP");
+    incoming.setEnabled(false);
+    when(jobSchedulesRepository.findById(3L)).thenReturn(Optional.of(existing));
+    when(jobSchedulesRepository.save(any(JobSchedule.class))).thenAnswer(i -> i.getArgument(0));
+
+    // act
+    mockMvc
+        .perform(
+            put("/api/jobs/schedules?id=3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(incoming))
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    assertEquals("hourly", existing.getName());
+    assertEquals(TestJob.class.getName(), existing.getJobClass());
+    assertEquals("{\"fail\":true}", existing.getPayload());
+    assertEquals("0 0 * * * *", existing.getCron());
+    assertEquals("SKIP", existing.getMisfirePolicy());
+    assertEquals(false, existing.isEnabled());
+    assertEquals(0, existing.getNextRunAt().getMinute());
+    verify(jobSchedulesRepository, times(1)).save(existing);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_cannot_post_schedule_with_a_name_that_is_taken() throws Exception {
+    // arrange
+    when(jobSchedulesRepository.existsByNameAndIdNot("nightly", 0L)).thenReturn(true);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/schedules/post")
+                    .param("name", "nightly")
+                    .param("job", "TestJob")
+                    .param("cron", "0 0 3 * * *")
+                    .with(csrf()))
+            .andExpect(status().isConflict())
+            .andReturn();
+
+    // assert
+    assertEquals(
+        "409 CONFLICT \"A job schedule named nightly already exists\"",
+        response.getResolvedException().getMessage());
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_cannot_rename_schedule_to_a_name_that_is_taken() throws Exception {
+    // arrange
+    JobSchedule incoming = nightly();
+    incoming.setName("hourly");
+    when(jobSchedulesRepository.findById(3L)).thenReturn(Optional.of(nightly()));
+    when(jobSchedulesRepository.existsByNameAndIdNot("hourly", 3L)).thenReturn(true);
+
+    // act and assert
+    mockMvc
+        .perform(
+            put("/api/jobs/schedules?id=3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(incoming))
+                .with(csrf()))
+        .andExpect(status().isConflict());
+
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_gets_conflict_when_the_name_is_taken_while_saving() throws Exception {
+    // arrange
+    when(jobSchedulesRepository.save(any(JobSchedule.class)))
+        .thenThrow(new DataIntegrityViolationException("JOB_SCHEDULES_NAME_UK"));
+
+    // act and assert
+    mockMvc
+        .perform(
+            post("/api/jobs/schedules/post")
+                .param("name", "nightly")
+                .param("job", "TestJob")
+                .param("cron", "0 0 3 * * *")
+                .with(csrf()))
+        .andExpect(status().isConflict());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_cannot_update_schedule_without_a_name() throws Exception {
+    // arrange
+    JobSchedule incoming = nightly();
+    incoming.setName(null);
+    when(jobSchedulesRepository.findById(3L)).thenReturn(Optional.of(nightly()));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                put("/api/jobs/schedules?id=3")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(mapper.writeValueAsString(incoming))
+                    .with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    assertEquals(
+        "400 BAD_REQUEST \"name must not be blank\"",
+        response.getResolvedException().getMessage());
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_cannot_post_schedule_with_a_blank_name() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/jobs/schedules/post")
+                .param("name", " ")
+                .param("job", "TestJob")
+                .param("cron", "0 0 3 * * *")
+                .with(csrf()))
+        .andExpect(status().isBadRequest());
+
+    verify(jobSchedulesRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void other_constraint_violations_are_not_reported_as_a_taken_name() throws Exception {
+    // arrange
+    DataIntegrityViolationException violation =
+        new DataIntegrityViolationException("NULL not allowed for column \"CRON\"");
+    when(jobSchedulesRepository.save(any(JobSchedule.class))).thenThrow(violation);
+
+    // act
+    ServletException e =
+        assertThrows(
+            ServletException.class,
+            () ->
+                mockMvc.perform(
+                    post("/api/jobs/schedules/post")
+                        .param("name", "nightly")
+                        .param("job", "TestJob")
+                        .param("cron", "0 0 3 * * *")
+                        .with(csrf())));
+
+    // assert
+    assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_delete_schedule() throws Exception {
+    // arrange
+    JobSchedule existing = nightly();
+    when(jobSchedulesRepository.findById(3L)).thenReturn(Optional.of(existing));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/jobs/schedules?id=3").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(jobSchedulesRepository, times(1)).delete(existing);
+    assertEquals("JobSchedule with id 3 deleted", responseToJson(response).get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_run_schedule_now() throws Exception {
+    // arrange
+    Job queued = Job.builder().id(17L).status("pending").build();
+    when(jobSchedulesRepository.findById(3L)).thenReturn(Optional.of(nightly()));
+    when(jobService.enqueue(TestJob.class.getName(), "{}")).thenReturn(queued);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/schedules/run?id=3").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(queued), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void logged_in_admin_can_get_schedules_a_page_at_a_time() throws Exception {
+    // arrange
+    JobSchedule first = JobSchedule.builder().id(1L).build();
+    JobSchedule second = JobSchedule.builder().id(2L).build();
+    when(jobSchedulesRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 2))))
+        .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/jobs/schedules/all?limit=2"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    KeysetPage<JobSchedule> expected = new KeysetPage<>(List.of(first, second), "2");
+    String expectedJson = mapper.writeValueAsString(expected);
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+}
@@ -12,40 +12,69 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.config.JobExecutorConfig;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.jobs.JobLogFlusher;
+import edu.ucsb.cs156.example.services.jobs.JobLogStreamer;
+import edu.ucsb.cs156.example.services.jobs.JobMetrics;
 import edu.ucsb.cs156.example.services.jobs.JobService;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import edu.ucsb.cs156.example.models.JobSummary;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.web.PagedModel;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @WebMvcTest(controllers = JobsController.class)
-@Import(JobService.class)
+@Import({JobService.class, JobLogFlusher.class, JobExecutorConfig.class})
 @AutoConfigureDataJpa
 public class JobsControllerTests extends ControllerTestCase {
 
   @MockitoBean JobsRepository jobsRepository;
 
+  @MockitoBean JobLogLinesRepository jobLogLinesRepository;
+
   @MockitoBean UserRepository userRepository;
 
+  @MockitoBean JobLogStreamer jobLogStreamer;
+
+  @MockitoBean NdjsonExportService ndjsonExportService;
+
+  @MockitoBean JobMetrics jobMetrics;
+
   @Autowired JobService jobService;
 
   @Autowired ObjectMapper objectMapper;
@@ -76,6 +105,88 @@ public class JobsControllerTests extends ControllerTestCase {
     assertEquals(expectedJson, responseString);
   }
 
+  private JobSummary summaryOf(Job job) {
+    return new SpelAwareProxyProjectionFactory().createProjection(JobSummary.class, job);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_first_page_of_jobs_newest_first() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(1L).status("complete").log("a very long log").build();
+    PageRequest pageRequest =
+        PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+    PageImpl<JobSummary> page = new PageImpl<>(List.of(summaryOf(job1)), pageRequest, 1);
+
+    when(jobsRepository.findAllProjectedBy(eq(pageRequest))).thenReturn(page);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/paged")).andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(jobsRepository, times(1)).findAllProjectedBy(eq(pageRequest));
+    String expectedJson = mapper.writeValueAsString(new PagedModel<>(page));
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+    assertEquals(false, responseString.contains("a very long log"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_filter_jobs_by_status_oldest_first() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(1L).status("error").build();
+    PageRequest pageRequest = PageRequest.of(2, 5, Sort.by(Sort.Direction.ASC, "createdAt", "id"));
+    PageImpl<JobSummary> page = new PageImpl<>(List.of(summaryOf(job1)), pageRequest, 11);
+
+    when(jobsRepository.findByStatusIn(eq(List.of("error", "rejected")), eq(pageRequest)))
+        .thenReturn(page);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                get("/api/jobs/paged?page=2&size=5&status=error&status=rejected&direction=ASC"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    verify(jobsRepository, times(1))
+        .findByStatusIn(eq(List.of("error", "rejected")), eq(pageRequest));
+    String expectedJson = mapper.writeValueAsString(new PagedModel<>(page));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void paged_jobs_clamps_page_and_size() throws Exception {
+
+    // arrange
+
+    PageRequest pageRequest =
+        PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+    when(jobsRepository.findAllProjectedBy(any()))
+        .thenAnswer(invocation -> new PageImpl<>(List.of(), invocation.getArgument(0), 0));
+
+    // act
+    mockMvc.perform(get("/api/jobs/paged?page=-3&size=5000")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/jobs/paged?size=0&status=")).andExpect(status().isOk());
+
+    // assert
+
+    verify(jobsRepository, times(1)).findAllProjectedBy(eq(pageRequest));
+    verify(jobsRepository, times(1))
+        .findAllProjectedBy(
+            eq(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "createdAt", "id"))));
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void api_getJobLogById__admin_logged_in__returns_job_by_id() throws Exception {
@@ -99,6 +210,80 @@ public class JobsControllerTests extends ControllerTestCase {
     assertEquals(expectedJson, responseString);
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void api_getJobLogById__admin_logged_in__returns_queue_position_of_pending_job()
+      throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(7L).status("pending").lane("batch").build();
+
+    when(jobsRepository.findById(eq(7L))).thenReturn(Optional.of(job));
+    when(jobsRepository.countPendingAhead("batch", 7L)).thenReturn(4L);
+
+    // act
+
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs?id=7")).andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("batch", json.get("lane"));
+    assertEquals(5, json.get("queuePosition"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_job_status_and_progress_without_log() throws Exception {
+
+    // arrange
+
+    Job job =
+        Job.builder()
+            .id(4L)
+            .status("running")
+            .lane("interactive")
+            .progressDone(3L)
+            .progressTotal(8L)
+            .log("a very long log")
+            .build();
+    when(jobsRepository.findProjectedById(4L)).thenReturn(Optional.of(summaryOf(job)));
+
+    // act
+
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/4/status")).andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("running", json.get("status"));
+    assertEquals(3, json.get("progressDone"));
+    assertEquals(8, json.get("progressTotal"));
+    assertEquals(false, json.containsKey("log"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void job_status_returns_not_found_for_missing_job() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.findProjectedById(2L)).thenReturn(Optional.empty());
+
+    // act
+
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/2/status")).andExpect(status().isNotFound()).andReturn();
+
+    // assert
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Job with id 2 not found", json.get("message"));
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void api_getJobLogById__admin_logged_in__returns_not_found_for_missing_job()
@@ -125,7 +310,7 @@ public class JobsControllerTests extends ControllerTestCase {
   @Test
   public void admin_can_delete_all_jobs() throws Exception {
 
-    doNothing().when(jobsRepository).deleteAll();
+    when(jobsRepository.deleteAllInBulk()).thenReturn(2);
 
     // act
     MvcResult response =
@@ -136,7 +321,8 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(jobsRepository, times(1)).deleteAll();
+    verify(jobsRepository, times(1)).deleteAllInBulk();
+    verify(jobLogLinesRepository, times(1)).deleteAllInBulk();
     String expectedJson = mapper.writeValueAsString(Map.of("message", "All jobs deleted"));
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -148,14 +334,14 @@ public class JobsControllerTests extends ControllerTestCase {
     // Arrange
     Long jobId = 1L;
     String jobLog = "This is a job log";
-    Job job = Job.builder().build();
-    job.setLog(jobLog);
-    when(jobsRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobsRepository.existsById(jobId)).thenReturn(true);
+    when(jobsRepository.findLogById(jobId)).thenReturn(Optional.of(jobLog));
 
     // Act & Assert
     mockMvc
         .perform(get("/api/jobs/logs/{id}", jobId))
         .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Offset", "1"))
         .andExpect(content().string(jobLog));
   }
 
@@ -164,17 +350,56 @@ public class JobsControllerTests extends ControllerTestCase {
   public void test_getJobLogs_admin_can_get_empty_log() throws Exception {
     // Arrange
     Long jobId = 2L;
-    Job job = Job.builder().build();
-    job.setLog("");
-    when(jobsRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobsRepository.existsById(jobId)).thenReturn(true);
+    when(jobsRepository.findLogById(jobId)).thenReturn(Optional.of(""));
 
     // Act & Assert
     mockMvc
         .perform(get("/api/jobs/logs/{id}", jobId))
         .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Offset", "0"))
         .andExpect(content().string(""));
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_getJobLogs_admin_can_get_range_of_lines() throws Exception {
+    // Arrange
+    Long jobId = 3L;
+    when(jobsRepository.existsById(jobId)).thenReturn(true);
+    when(jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 1L, PageRequest.of(0, 2)))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(jobId).lineNumber(1).message("one").build(),
+                JobLogLine.builder().jobId(jobId).lineNumber(2).message("two").build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?offset=1&limit=2", jobId))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Offset", "3"))
+        .andExpect(content().string("one\ntwo"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_getJobLogs_admin_can_get_tail() throws Exception {
+    // Arrange
+    Long jobId = 3L;
+    when(jobsRepository.existsById(jobId)).thenReturn(true);
+    when(jobLogLinesRepository.findByJobIdOrderByLineNumberDesc(jobId, PageRequest.of(0, 1)))
+        .thenReturn(
+            List.of(JobLogLine.builder().jobId(jobId).lineNumber(41).message("last").build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?tail=1&offset=5", jobId))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Offset", "42"))
+        .andExpect(content().string("last"));
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void admin_can_delete_specific_job() throws Exception {
@@ -194,6 +419,7 @@ public class JobsControllerTests extends ControllerTestCase {
     // assert
 
     verify(jobsRepository, times(1)).deleteById(eq(1L));
+    verify(jobLogLinesRepository, times(1)).deleteByJobId(eq(1L));
     String expectedJson = mapper.writeValueAsString(Map.of("message", "Job with id 1 deleted"));
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -222,6 +448,76 @@ public class JobsControllerTests extends ControllerTestCase {
     assertEquals(expectedJson, responseString);
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_gets_reasonable_error_when_cancelling_job_that_does_not_exist()
+      throws Exception {
+
+    // arrange
+
+    when(jobsRepository.existsById(eq(2L))).thenReturn(false);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=2").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    verify(jobsRepository, never()).requestCancelById(anyLong());
+    String expectedJson = mapper.writeValueAsString(Map.of("message", "Job with id 2 not found"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_cannot_cancel_job_that_is_not_running() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.existsById(eq(2L))).thenReturn(true);
+    when(jobsRepository.requestCancelById(eq(2L))).thenReturn(0);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=2").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    String expectedJson =
+        mapper.writeValueAsString(Map.of("message", "Job with id 2 is not running"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_cancel_running_job() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.existsById(eq(2L))).thenReturn(true);
+    when(jobsRepository.requestCancelById(eq(2L))).thenReturn(1);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=2").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+
+    verify(jobsRepository, times(1)).requestCancelById(2L);
+    String expectedJson =
+        mapper.writeValueAsString(Map.of("message", "Job with id 2 is being cancelled"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void admin_can_launch_test_job() throws Exception {
@@ -230,16 +526,6 @@ public class JobsControllerTests extends ControllerTestCase {
 
     User user = currentUserService.getUser();
 
-    Job jobStarted =
-        Job.builder()
-            .id(0L)
-            .createdBy(user)
-            .createdAt(null)
-            .updatedAt(null)
-            .status("running")
-            .log("Hello World! from test job!")
-            .build();
-
     Job jobCompleted =
         Job.builder()
             .id(0L)
@@ -247,10 +533,15 @@ public class JobsControllerTests extends ControllerTestCase {
             .createdAt(null)
             .updatedAt(null)
             .status("complete")
-            .log("Hello World! from test job!\nGoodbye from test job!")
+            .lane("interactive")
+            .jobClass(TestJob.class.getName())
+            .payload(
+                objectMapper.writeValueAsString(
+                    TestJob.builder().fail(false).sleepMs(2000).build()))
             .build();
 
-    when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobCompleted);
+    when(jobsRepository.save(any(Job.class))).thenReturn(jobCompleted);
+    when(jobsRepository.claimById(anyLong(), any(), any())).thenReturn(1);
 
     // act
     MvcResult response =
@@ -265,12 +556,18 @@ public class JobsControllerTests extends ControllerTestCase {
 
     assertEquals("running", jobReturned.getStatus());
 
-    await()
-        .atMost(1, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobStarted)));
     await()
         .atMost(10, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(4)).save(eq(jobCompleted)));
+        .untilAsserted(
+            () ->
+                verify(jobsRepository, times(1))
+                    .finishById(eq(0L), any(), eq("complete"), eq(false), any()));
+    verify(jobsRepository, times(1)).save(eq(jobCompleted));
+
+    List<JobLogLine> lines = savedLogLines();
+    assertEquals(2, lines.size());
+    assertEquals("Hello World! from test job!", lines.get(0).getMessage());
+    assertEquals("Goodbye from test job!", lines.get(1).getMessage());
   }
 
   @WithMockUser(roles = {"ADMIN"})
@@ -281,16 +578,6 @@ public class JobsControllerTests extends ControllerTestCase {
 
     User user = currentUserService.getUser();
 
-    Job jobStarted =
-        Job.builder()
-            .id(0L)
-            .createdBy(user)
-            .createdAt(null)
-            .updatedAt(null)
-            .status("running")
-            .log("Hello World! from test job!")
-            .build();
-
     Job jobFailed =
         Job.builder()
             .id(0L)
@@ -298,10 +585,15 @@ public class JobsControllerTests extends ControllerTestCase {
             .createdAt(null)
             .updatedAt(null)
             .status("error")
-            .log("Hello World! from test job!\nFail!")
+            .lane("interactive")
+            .jobClass(TestJob.class.getName())
+            .payload(
+                objectMapper.writeValueAsString(
+                    TestJob.builder().fail(true).sleepMs(4000).build()))
             .build();
 
-    when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobFailed);
+    when(jobsRepository.save(any(Job.class))).thenReturn(jobFailed);
+    when(jobsRepository.claimById(anyLong(), any(), any())).thenReturn(1);
 
     // act
     MvcResult response =
@@ -315,13 +607,110 @@ public class JobsControllerTests extends ControllerTestCase {
 
     assertEquals("running", jobReturned.getStatus());
 
-    await()
-        .atMost(1, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobStarted)));
-
     await()
         .atMost(10, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(3)).save(eq(jobFailed)));
+        .untilAsserted(
+            () ->
+                verify(jobsRepository, times(1))
+                    .finishById(eq(0L), any(), eq("error"), eq(false), any()));
+    verify(jobsRepository, times(1)).save(eq(jobFailed));
+
+    List<JobLogLine> lines = savedLogLines();
+    assertEquals(2, lines.size());
+    assertEquals("Hello World! from test job!", lines.get(0).getMessage());
+    assertEquals("Fail!", lines.get(1).getMessage());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launch_test_job_rejects_unknown_lane() throws Exception {
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0&lane=urgent").with(csrf()))
+        .andExpect(status().isBadRequest());
+
+    verify(jobsRepository, never()).save(any(Job.class));
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_job_log_from_start() throws Exception {
+    // arrange
+    when(jobsRepository.existsById(eq(1L))).thenReturn(true);
+    when(jobLogStreamer.subscribe(1L, 0L)).thenReturn(new SseEmitter());
+
+    // act & assert
+    mockMvc.perform(get("/api/jobs/logs/1/stream")).andExpect(request().asyncStarted());
+    verify(jobLogStreamer, times(1)).subscribe(1L, 0L);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_job_log_from_a_line() throws Exception {
+    // arrange
+    when(jobsRepository.existsById(eq(1L))).thenReturn(true);
+    when(jobLogStreamer.subscribe(1L, 3L)).thenReturn(new SseEmitter());
+
+    // act & assert
+    mockMvc.perform(get("/api/jobs/logs/1/stream?from=3")).andExpect(request().asyncStarted());
+    verify(jobLogStreamer, times(1)).subscribe(1L, 3L);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void reconnecting_stream_resumes_after_last_event_id() throws Exception {
+    // arrange
+    when(jobsRepository.existsById(eq(1L))).thenReturn(true);
+    when(jobLogStreamer.subscribe(1L, 5L)).thenReturn(new SseEmitter());
+
+    // act & assert
+    mockMvc
+        .perform(get("/api/jobs/logs/1/stream?from=0").header("Last-Event-ID", "4"))
+        .andExpect(request().asyncStarted());
+    verify(jobLogStreamer, times(1)).subscribe(1L, 5L);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void streaming_log_of_missing_job_returns_not_found() throws Exception {
+    // arrange
+    when(jobsRepository.existsById(eq(2L))).thenReturn(false);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/2/stream"))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Job with id 2 not found", json.get("message"));
+    verify(jobLogStreamer, never()).subscribe(anyLong(), anyLong());
+  }
+
+  private List<JobLogLine> savedLogLines() {
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+    verify(jobLogLinesRepository, atLeastOnce()).saveAll(captor.capture());
+    return captor.getAllValues().stream().flatMap(List::stream).toList();
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void logged_in_admin_can_get_jobs_a_page_at_a_time() throws Exception {
+    // arrange
+    Job first = Job.builder().id(1L).build();
+    Job second = Job.builder().id(2L).build();
+    when(jobsRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 2))))
+        .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/jobs/all?limit=2"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    KeysetPage<Job> expected = new KeysetPage<>(List.of(first, second), "2");
+    String expectedJson = mapper.writeValueAsString(expected);
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
 }
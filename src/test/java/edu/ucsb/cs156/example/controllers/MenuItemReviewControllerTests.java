@@ -4,16 +4,38 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.time.LocalDateTime;
 import org.junit.jupiter.api.Test;
+import edu.ucsb.cs156.example.services.ImportUploadService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.MenuItemRatingService;
+import edu.ucsb.cs156.example.services.MenuItemReviewImportService;
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.jobs.MenuItemReviewImportJob;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+import java.util.function.Function;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -25,8 +47,11 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,6 +63,21 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
         @MockBean
         MenuItemReviewRepository menuItemReviewRepository;
 
+        @MockBean
+        NdjsonExportService ndjsonExportService;
+
+        @MockBean
+        MenuItemReviewImportService menuItemReviewImportService;
+
+        @MockBean
+        ImportUploadService importUploadService;
+
+        @MockBean
+        JobService jobService;
+
+        @MockBean
+        MenuItemRatingService menuItemRatingService;
+
         @MockBean
         UserRepository userRepository;
 
@@ -173,7 +213,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
                                 .comments("Great food!")
                                 .build();
 
-                when(menuItemReviewRepository.save(eq(review))).thenReturn(review);
+                when(menuItemRatingService.saveReview(eq(review))).thenReturn(review);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -182,7 +222,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(menuItemReviewRepository, times(1)).save(review);
+                verify(menuItemRatingService, times(1)).saveReview(review);
                 String expectedJson = mapper.writeValueAsString(review);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -211,7 +251,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(menuItemReviewRepository, times(1)).findById(15L);
-                verify(menuItemReviewRepository, times(1)).delete(any());
+                verify(menuItemRatingService, times(1)).deleteReview(15L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("MenuItemReview with id 15 deleted", json.get("message"));
@@ -260,6 +300,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
                 String requestBody = mapper.writeValueAsString(reviewEdited);
 
                 when(menuItemReviewRepository.findById(eq(67L))).thenReturn(Optional.of(reviewOrig));
+                when(menuItemRatingService.saveReview(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -272,7 +313,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(menuItemReviewRepository, times(1)).findById(67L);
-                verify(menuItemReviewRepository, times(1)).save(reviewEdited);
+                verify(menuItemRatingService, times(1)).saveReview(reviewEdited);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
 
@@ -314,4 +355,290 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("MenuItemReview with id 67 not found", json.get("message"));
         }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_post_a_review_with_zero_stars() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/menuitemreview/post?itemId=1&reviewerEmail=student@ucsb.edu&stars=0&dateReviewed=2024-03-15T12:00:00&comments=Awful")
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                assertEquals("400 BAD_REQUEST \"stars must be from 1 to 5\"", response.getResolvedException().getMessage());
+                verify(menuItemRatingService, never()).saveReview(any());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_a_review_to_six_stars() throws Exception {
+                // arrange
+                LocalDateTime testDate = LocalDateTime.parse("2024-03-15T12:00:00");
+                MenuItemReview reviewOrig = MenuItemReview.builder()
+                                .itemId(1L)
+                                .reviewerEmail("student@ucsb.edu")
+                                .stars(4)
+                                .dateReviewed(testDate)
+                                .comments("Great food!")
+                                .build();
+                MenuItemReview reviewEdited = MenuItemReview.builder()
+                                .itemId(1L)
+                                .reviewerEmail("student@ucsb.edu")
+                                .stars(6)
+                                .dateReviewed(testDate)
+                                .comments("Better than great!")
+                                .build();
+
+                when(menuItemReviewRepository.findById(eq(67L))).thenReturn(Optional.of(reviewOrig));
+
+                // act
+                mockMvc.perform(
+                                put("/api/menuitemreview?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(reviewEdited))
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest());
+
+                // assert
+                verify(menuItemRatingService, never()).saveReview(any());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_a_review_to_have_no_stars() throws Exception {
+                // arrange
+                when(menuItemReviewRepository.findById(eq(67L))).thenReturn(Optional.of(MenuItemReview.builder().build()));
+                String requestBody = "{\"itemId\": 1, \"reviewerEmail\": \"student@ucsb.edu\", \"dateReviewed\": \"2024-03-15T12:00:00\"}";
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/menuitemreview?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                assertTrue(response.getResolvedException().getMessage().contains("stars is missing"));
+                verify(menuItemRatingService, never()).saveReview(any());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_reviews_a_page_at_a_time() throws Exception {
+                // arrange
+                MenuItemReview first = MenuItemReview.builder().id(1L).build();
+                MenuItemReview second = MenuItemReview.builder().id(2L).build();
+                when(menuItemReviewRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 2))))
+                        .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/menuitemreview/all?limit=2"))
+                        .andExpect(status().isOk()).andReturn();
+
+                // assert
+                KeysetPage<MenuItemReview> expected = new KeysetPage<>(List.of(first, second), "2");
+                String expectedJson = mapper.writeValueAsString(expected);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for GET /api/menuitemreview/search
+
+        @SuppressWarnings("unchecked")
+        private FetchableFluentQuery<MenuItemReview> stubSearch(List<MenuItemReview> rows) {
+                FetchableFluentQuery<MenuItemReview> query = mock(FetchableFluentQuery.class, RETURNS_SELF);
+                when(query.all()).thenReturn(rows);
+                when(menuItemReviewRepository.findBy(any(Specification.class), any()))
+                                .thenAnswer(invocation -> ((Function<FetchableFluentQuery<MenuItemReview>, Object>) invocation
+                                                .getArgument(1)).apply(query));
+                return query;
+        }
+
+        @Test
+        public void logged_out_users_cannot_search() throws Exception {
+                mockMvc.perform(get("/api/menuitemreview/search?itemId=7"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void search_returns_a_page_and_the_cursor_of_the_next() throws Exception {
+                // arrange
+                LocalDateTime date = LocalDateTime.parse("2022-01-03T00:00:00");
+                MenuItemReview review1 = MenuItemReview.builder().id(11L).itemId(7L).reviewerEmail("cgaucho@ucsb.edu").stars(4).dateReviewed(date).build();
+                MenuItemReview review2 = MenuItemReview.builder().id(14L).itemId(7L).reviewerEmail("ldelplaya@ucsb.edu").stars(5).dateReviewed(date).build();
+                MenuItemReview review3 = MenuItemReview.builder().id(20L).itemId(7L).reviewerEmail("cgaucho@ucsb.edu").stars(3).dateReviewed(date).build();
+                FetchableFluentQuery<MenuItemReview> query = stubSearch(new ArrayList<>(List.of(review1, review2, review3)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/menuitemreview/search?itemId=7&minStars=3&maxStars=5"
+                                + "&reviewedFrom=2022-01-01T00:00:00&reviewedTo=2022-01-31T00:00:00&limit=2&after=10"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(query, times(1)).sortBy(Sort.by("id"));
+                verify(query, times(1)).limit(3);
+                KeysetPage<MenuItemReview> expected = new KeysetPage<>(List.of(review1, review2), "14");
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void search_on_the_last_page_has_no_next() throws Exception {
+                // arrange
+                MenuItemReview review = MenuItemReview.builder().id(11L).itemId(7L).reviewerEmail("cgaucho@ucsb.edu").stars(4).build();
+                FetchableFluentQuery<MenuItemReview> query = stubSearch(List.of(review));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/menuitemreview/search?reviewerEmail=cgaucho@ucsb.edu"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(query, times(1)).limit(101);
+                KeysetPage<MenuItemReview> expected = new KeysetPage<>(List.of(review), null);
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        // Tests for GET /api/menuitemreview/rating
+
+        @Test
+        public void logged_out_users_cannot_get_a_rating() throws Exception {
+                mockMvc.perform(get("/api/menuitemreview/rating?itemId=7"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_the_rating_of_an_item() throws Exception {
+                // arrange
+                MenuItemRating rating = MenuItemRating.builder()
+                                .itemId(7L)
+                                .reviewCount(3)
+                                .starsTotal(11)
+                                .threeStars(1)
+                                .fourStars(2)
+                                .build();
+                when(menuItemRatingService.getRating(7L)).thenReturn(rating);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/menuitemreview/rating?itemId=7"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(menuItemRatingService, times(1)).getRating(7L);
+                assertEquals(mapper.writeValueAsString(rating), response.getResponse().getContentAsString());
+        }
+
+        // Tests for POST /api/menuitemreview/import
+
+        @Test
+        public void logged_out_users_cannot_import() throws Exception {
+                mockMvc.perform(multipart("/api/menuitemreview/import")
+                                .file(new MockMultipartFile("file", "reviews.csv", "text/csv", new byte[0]))
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_import() throws Exception {
+                mockMvc.perform(multipart("/api/menuitemreview/import")
+                                .file(new MockMultipartFile("file", "reviews.csv", "text/csv", new byte[0]))
+                                .with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_import_a_csv_file_as_a_batch_job() throws Exception {
+                // arrange
+                String csv = "itemId,reviewerEmail,stars,dateReviewed,comments\n"
+                                + "7,cgaucho@ucsb.edu,5,2022-01-03T00:00:00,great\n";
+                Job job = Job.builder().id(3L).status("pending").lane("batch").build();
+                when(jobService.runAsJob(any(), eq(JobService.BATCH))).thenReturn(job);
+                StringBuilder stored = new StringBuilder();
+                when(importUploadService.store(eq("Reviews.CSV"), any())).thenAnswer(invocation -> {
+                        InputStream content = invocation.getArgument(1);
+                        stored.append(new String(content.readAllBytes(), StandardCharsets.UTF_8));
+                        return 8L;
+                });
+
+                // act
+                MvcResult response = mockMvc.perform(multipart("/api/menuitemreview/import")
+                                .file(new MockMultipartFile("file", "Reviews.CSV", "text/csv", csv.getBytes()))
+                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                ArgumentCaptor<MenuItemReviewImportJob> captor = ArgumentCaptor.forClass(MenuItemReviewImportJob.class);
+                verify(jobService, times(1)).runAsJob(captor.capture(), eq(JobService.BATCH));
+                MenuItemReviewImportJob importJob = captor.getValue();
+                assertEquals("Reviews.CSV", importJob.getFilename());
+                assertEquals(MenuItemReviewImportService.CSV, importJob.getFormat());
+                assertEquals(csv, stored.toString());
+                assertEquals(8L, importJob.getUploadId());
+                assertEquals(menuItemReviewImportService, importJob.getImportService());
+                assertEquals(mapper.writeValueAsString(job), response.getResponse().getContentAsString());
+                verify(importUploadService, never()).discard(anyLong());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_import_a_json_file() throws Exception {
+                // arrange
+                String json = "[]";
+                when(jobService.runAsJob(any(), eq(JobService.BATCH))).thenReturn(Job.builder().id(4L).build());
+                when(importUploadService.store(eq("reviews.json"), any())).thenReturn(9L);
+
+                // act
+                mockMvc.perform(multipart("/api/menuitemreview/import")
+                                .file(new MockMultipartFile("file", "reviews.json", "application/json", json.getBytes()))
+                                .with(csrf()))
+                                .andExpect(status().isOk());
+
+                // assert
+                ArgumentCaptor<MenuItemReviewImportJob> captor = ArgumentCaptor.forClass(MenuItemReviewImportJob.class);
+                verify(jobService, times(1)).runAsJob(captor.capture(), eq(JobService.BATCH));
+                assertEquals(MenuItemReviewImportService.JSON, captor.getValue().getFormat());
+                assertEquals(9L, captor.getValue().getUploadId());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void the_upload_of_a_rejected_import_is_discarded() throws Exception {
+                // arrange
+                when(importUploadService.store(eq("reviews.json"), any())).thenReturn(9L);
+                when(jobService.runAsJob(any(), eq(JobService.BATCH)))
+                                .thenReturn(Job.builder().id(4L).status("rejected").build());
+
+                // act
+                mockMvc.perform(multipart("/api/menuitemreview/import")
+                                .file(new MockMultipartFile("file", "reviews.json", "application/json", "[]".getBytes()))
+                                .with(csrf()))
+                                .andExpect(status().isOk());
+
+                // assert
+                verify(importUploadService, times(1)).discard(9L);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void import_rejects_files_that_are_neither_csv_nor_json() throws Exception {
+                mockMvc.perform(multipart("/api/menuitemreview/import")
+                                .file(new MockMultipartFile("file", "reviews.txt", "text/plain", "x".getBytes()))
+                                .with(csrf()))
+                                .andExpect(status().isBadRequest());
+
+                mockMvc.perform(multipart("/api/menuitemreview/import")
+                                .file(new MockMultipartFile("file", null, "text/plain", "x".getBytes()))
+                                .with(csrf()))
+                                .andExpect(status().isBadRequest());
+
+                verify(jobService, times(0)).runAsJob(any(), any());
+                verify(importUploadService, never()).store(any(), any());
+        }
 }
\ No newline at end of file
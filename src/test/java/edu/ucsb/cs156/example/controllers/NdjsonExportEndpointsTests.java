@@ -0,0 +1,174 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.repositories.ArticleRepository;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.StreamingRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ImportUploadService;
+import edu.ucsb.cs156.example.services.MenuItemRatingService;
+import edu.ucsb.cs156.example.services.MenuItemReviewImportService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.jobs.JobLogStreamer;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+/** Tests the GET /export endpoint of every controller that has one. */
+@WebMvcTest(
+    controllers = {
+      ArticlesController.class,
+      HelpRequestController.class,
+      JobsController.class,
+      MenuItemReviewController.class,
+      RecommendationRequestController.class,
+      RestaurantsController.class,
+      UCSBDatesController.class,
+      UCSBDiningCommonsController.class,
+      UCSBDiningCommonsMenuItemController.class,
+      UCSBOrganizationController.class
+    })
+public class NdjsonExportEndpointsTests extends ControllerTestCase {
+
+  @MockitoBean NdjsonExportService ndjsonExportService;
+
+  @MockitoBean ArticleRepository articleRepository;
+
+  @MockitoBean HelpRequestRepository helpRequestRepository;
+
+  @MockitoBean JobsRepository jobsRepository;
+
+  @MockitoBean JobLogLinesRepository jobLogLinesRepository;
+
+  @MockitoBean MenuItemReviewRepository menuItemReviewRepository;
+
+  @MockitoBean RecommendationRequestRepository recommendationRequestRepository;
+
+  @MockitoBean RestaurantRepository restaurantRepository;
+
+  @MockitoBean UCSBDateRepository ucsbDateRepository;
+
+  @MockitoBean UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @MockitoBean UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
+
+  @MockitoBean UCSBOrganizationRepository ucsbOrganizationRepository;
+
+  @MockitoBean UserRepository userRepository;
+
+  @MockitoBean JobService jobService;
+
+  @MockitoBean JobLogStreamer jobLogStreamer;
+
+  @MockitoBean MenuItemReviewImportService menuItemReviewImportService;
+
+  @MockitoBean ImportUploadService importUploadService;
+
+  @MockitoBean MenuItemRatingService menuItemRatingService;
+
+  @Autowired ApplicationContext applicationContext;
+
+  // the path of each export, the name of its download, and the repository it exports
+  static Stream<Arguments> exports() {
+    return Stream.of(
+        Arguments.of("/api/articles/export", "articles", ArticleRepository.class),
+        Arguments.of("/api/helprequest/export", "helprequest", HelpRequestRepository.class),
+        Arguments.of("/api/jobs/export", "jobs", JobsRepository.class),
+        Arguments.of(
+            "/api/menuitemreview/export", "menuitemreview", MenuItemReviewRepository.class),
+        Arguments.of(
+            "/api/recommendationrequests/export",
+            "recommendationrequest",
+            RecommendationRequestRepository.class),
+        Arguments.of("/api/restaurants/export", "restaurants", RestaurantRepository.class),
+        Arguments.of("/api/ucsbdates/export", "ucsbdates", UCSBDateRepository.class),
+        Arguments.of(
+            "/api/ucsbdiningcommons/export",
+            "ucsbdiningcommons",
+            UCSBDiningCommonsRepository.class),
+        Arguments.of(
+            "/api/ucsbdiningcommonsmenuitem/export",
+            "ucsbdiningcommonsmenuitem",
+            UCSBDiningCommonsMenuItemRepository.class),
+        Arguments.of(
+            "/api/ucsborganizations/export",
+            "ucsborganization",
+            UCSBOrganizationRepository.class));
+  }
+
+  @ParameterizedTest
+  @MethodSource("exports")
+  public void logged_out_users_cannot_export(
+      String path, String filename, Class<? extends StreamingRepository<?, ?>> repositoryType)
+      throws Exception {
+    mockMvc.perform(get(path)).andExpect(status().is(403));
+
+    verify(ndjsonExportService, never()).export(any(), any());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @ParameterizedTest
+  @MethodSource("exports")
+  public void export_streams_what_the_service_writes_for_its_repository_as_a_download(
+      String path, String filename, Class<? extends StreamingRepository<?, ?>> repositoryType)
+      throws Exception {
+    // arrange
+    StreamingRepository<?, ?> repository = applicationContext.getBean(repositoryType);
+    String ndjson = "{\"id\":1}\n{\"id\":2}\n";
+    when(ndjsonExportService.export(eq(repository), any()))
+        .thenAnswer(
+            invocation -> {
+              invocation.getArgument(1, OutputStream.class)
+                  .write(ndjson.getBytes(StandardCharsets.UTF_8));
+              return 2L;
+            });
+
+    // act
+    MvcResult result = mockMvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn();
+
+    // assert
+    MvcResult response =
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(
+                header()
+                    .string(
+                        "Content-Disposition", "attachment; filename=\"" + filename + ".ndjson\""))
+            .andReturn();
+    assertEquals(ndjson, response.getResponse().getContentAsString());
+  }
+}
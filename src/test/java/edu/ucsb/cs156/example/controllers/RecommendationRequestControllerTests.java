@@ -5,15 +5,20 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.RecommendationRequest;
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -39,6 +44,9 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
         @MockBean
         RecommendationRequestRepository recommendationRequestRepository;
 
+        @MockBean
+        NdjsonExportService ndjsonExportService;
+
         @MockBean
         UserRepository userRepository;
 
@@ -348,4 +356,23 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                 assertEquals("RecommendationRequest with id 123 not found", json.get("message"));
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_requests_a_page_at_a_time() throws Exception {
+                // arrange
+                RecommendationRequest first = RecommendationRequest.builder().id(1L).build();
+                RecommendationRequest second = RecommendationRequest.builder().id(2L).build();
+                when(recommendationRequestRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 2))))
+                        .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/recommendationrequests/all?limit=2"))
+                        .andExpect(status().isOk()).andReturn();
+
+                // assert
+                KeysetPage<RecommendationRequest> expected = new KeysetPage<>(List.of(first, second), "2");
+                String expectedJson = mapper.writeValueAsString(expected);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
 }
\ No newline at end of file
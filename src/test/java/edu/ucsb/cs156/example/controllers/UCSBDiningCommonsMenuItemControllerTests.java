@@ -4,7 +4,9 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 
 import java.util.Arrays;
 import java.util.List;
@@ -15,6 +17,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.http.MediaType;
@@ -41,6 +45,9 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
   @MockBean
   UCSBDiningCommonsMenuItemRepository repository;
 
+  @MockBean
+  NdjsonExportService ndjsonExportService;
+
   @MockBean
   UserRepository userRepository;
 
@@ -273,5 +280,23 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
     assertEquals("UCSBDiningCommonsMenuItem with id 15 not found", json.get("message"));
 }
 
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void logged_in_user_can_get_items_a_page_at_a_time() throws Exception {
+    // arrange
+    UCSBDiningCommonsMenuItem first = UCSBDiningCommonsMenuItem.builder().id(1L).build();
+    UCSBDiningCommonsMenuItem second = UCSBDiningCommonsMenuItem.builder().id(2L).build();
+    when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 2))))
+            .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all?limit=2"))
+            .andExpect(status().isOk()).andReturn();
 
+    // assert
+    KeysetPage<UCSBDiningCommonsMenuItem> expected = new KeysetPage<>(List.of(first, second), "2");
+    String expectedJson = mapper.writeValueAsString(expected);
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
 }
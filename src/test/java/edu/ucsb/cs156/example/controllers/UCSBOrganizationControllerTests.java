@@ -5,15 +5,20 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -37,6 +42,9 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
     @MockBean
     UCSBOrganizationRepository ucsbOrganizationRepository;
 
+    @MockBean
+    NdjsonExportService ndjsonExportService;
+
     @MockBean
     UserRepository userRepository;
 
@@ -343,5 +351,25 @@ public void logged_in_regular_users_cannot_put() throws Exception {
                 assertEquals("UCSBOrganization with id 123 not found", json.get("message"));
 
         }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_organizations_a_page_at_a_time() throws Exception {
+        // arrange
+        UCSBOrganization first = UCSBOrganization.builder().orgCode("carrillo").build();
+        UCSBOrganization second = UCSBOrganization.builder().orgCode("de-la-guerra").build();
+        when(ucsbOrganizationRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq(""), eq(PageRequest.of(0, 2))))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsborganizations/all?limit=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        KeysetPage<UCSBOrganization> expected = new KeysetPage<>(List.of(first, second), "de-la-guerra");
+        String expectedJson = mapper.writeValueAsString(expected);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
 }
 
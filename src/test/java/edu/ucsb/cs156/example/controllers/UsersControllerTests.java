@@ -2,33 +2,49 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.UserChangedEvent;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 @WebMvcTest(controllers = UsersController.class)
 @Import(TestConfig.class)
+@RecordApplicationEvents
 public class UsersControllerTests extends ControllerTestCase {
 
   @MockBean
   UserRepository userRepository;
 
+  @Autowired
+  ApplicationEvents applicationEvents;
+
   @Test
   public void users__logged_out() throws Exception {
     mockMvc.perform(get("/api/admin/users"))
@@ -70,4 +86,83 @@ public class UsersControllerTests extends ControllerTestCase {
     assertEquals(expectedJson, responseString);
 
   }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void users_a_page_at_a_time__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users?limit=2"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users_a_page_at_a_time__admin_logged_in() throws Exception {
+
+    // arrange
+
+    User first = User.builder().id(1L).build();
+    User second = User.builder().id(2L).build();
+    when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 2))))
+        .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?limit=2"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    KeysetPage<User> expected = new KeysetPage<>(List.of(first, second), "2");
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void setAdmin__user_logged_in() throws Exception {
+    mockMvc.perform(put("/api/admin/users/admin?id=7&admin=true").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void setAdmin__admin_can_make_a_user_an_admin() throws Exception {
+
+    // arrange
+
+    User user = User.builder().id(7L).email("cgaucho@ucsb.edu").admin(false).build();
+    when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+    // act
+
+    MvcResult response = mockMvc.perform(put("/api/admin/users/admin?id=7&admin=true").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    User expected = User.builder().id(7L).email("cgaucho@ucsb.edu").admin(true).build();
+    verify(userRepository, times(1)).save(expected);
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+    assertEquals(List.of(new UserChangedEvent("cgaucho@ucsb.edu")),
+        applicationEvents.stream(UserChangedEvent.class).toList());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void setAdmin__user_that_does_not_exist() throws Exception {
+
+    // arrange
+
+    when(userRepository.findById(7L)).thenReturn(Optional.empty());
+
+    // act
+
+    MvcResult response = mockMvc.perform(put("/api/admin/users/admin?id=7&admin=false").with(csrf()))
+        .andExpect(status().isNotFound()).andReturn();
+
+    // assert
+
+    verify(userRepository, times(0)).save(any());
+    assertEquals("User with id 7 not found", responseToJson(response).get("message"));
+    assertEquals(0, applicationEvents.stream(UserChangedEvent.class).count());
+  }
 }
@@ -0,0 +1,112 @@
+package edu.ucsb.cs156.example.integration;
+
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.services.MenuItemRatingService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@Import(TestConfig.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD) // Resets database before each test
+public class MenuItemRatingIT {
+
+    // each test repeats its race this many times, so the two writers overlap at least once
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private MenuItemRatingService menuItemRatingService;
+
+    @Autowired
+    private MenuItemReviewRepository menuItemReviewRepository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private MenuItemReview review(Long id, long itemId, int stars) {
+        return MenuItemReview.builder()
+                .id(id)
+                .itemId(itemId)
+                .reviewerEmail("cgaucho@ucsb.edu")
+                .stars(stars)
+                .dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00"))
+                .build();
+    }
+
+    // runs both writers at the same moment and rethrows anything either of them threw
+    private void race(Callable<?> first, Callable<?> second) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = List.of(
+                executor.submit(() -> { start.await(); return first.call(); }),
+                executor.submit(() -> { start.await(); return second.call(); }));
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+    }
+
+    @Test
+    public void two_first_reviews_of_an_item_saved_at_once_are_both_counted() throws Exception {
+        for (long itemId = 1; itemId <= ROUNDS; itemId++) {
+            long item = itemId;
+
+            // act
+            race(() -> menuItemRatingService.saveReview(review(null, item, 2)),
+                    () -> menuItemRatingService.saveReview(review(null, item, 5)));
+
+            // assert
+            MenuItemRating rating = menuItemRatingService.getRating(item);
+            assertEquals(2, rating.getReviewCount());
+            assertEquals(7, rating.getStarsTotal());
+            assertEquals(1, rating.getTwoStars());
+            assertEquals(1, rating.getFiveStars());
+        }
+        assertEquals(2 * ROUNDS, menuItemReviewRepository.count());
+    }
+
+    @Test
+    public void two_changes_to_a_review_saved_at_once_leave_its_rating_matching_it() throws Exception {
+        for (long itemId = 1; itemId <= ROUNDS; itemId++) {
+            // arrange
+            long id = menuItemRatingService.saveReview(review(null, itemId, 1)).getId();
+            long item = itemId;
+
+            // act
+            race(() -> menuItemRatingService.saveReview(review(id, item, 4)),
+                    () -> menuItemRatingService.saveReview(review(id, item, 5)));
+
+            // assert
+            int stars = menuItemReviewRepository.findById(id).get().getStars();
+            MenuItemRating rating = menuItemRatingService.getRating(item);
+            assertEquals(1, rating.getReviewCount());
+            assertEquals(stars, rating.getStarsTotal());
+            assertEquals(0, rating.getOneStar());
+            assertEquals(stars == 4 ? 1 : 0, rating.getFourStars());
+            assertEquals(stars == 5 ? 1 : 0, rating.getFiveStars());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.services.MenuItemReviewImportService;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+public class MenuItemReviewImportJobTests {
+
+  @Test
+  public void accept_imports_the_file_and_logs_the_count() throws Exception {
+    // arrange
+    MenuItemReviewImportService importService = mock(MenuItemReviewImportService.class);
+    JobContext ctx = mock(JobContext.class);
+    MenuItemReviewImportJob job =
+        MenuItemReviewImportJob.builder()
+            .importService(importService)
+            .filename("reviews.csv")
+            .format(MenuItemReviewImportService.CSV)
+            .uploadId(8L)
+            .build();
+    when(importService.importReviews(MenuItemReviewImportService.CSV, 8L, ctx)).thenReturn(12);
+
+    // act
+    job.accept(ctx);
+
+    // assert
+    InOrder inOrder = inOrder(ctx, importService);
+    inOrder.verify(ctx).log("Importing menu item reviews from reviews.csv");
+    inOrder.verify(importService).importReviews(MenuItemReviewImportService.CSV, 8L, ctx);
+    inOrder.verify(ctx).log("Imported 12 menu item reviews");
+  }
+
+  @Test
+  public void the_import_service_is_not_stored_with_the_job() throws Exception {
+    MenuItemReviewImportJob job =
+        MenuItemReviewImportJob.builder()
+            .importService(mock(MenuItemReviewImportService.class))
+            .filename("reviews.json")
+            .format(MenuItemReviewImportService.JSON)
+            .uploadId(9L)
+            .build();
+
+    String payload = new ObjectMapper().writeValueAsString(job);
+    MenuItemReviewImportJob loaded =
+        new ObjectMapper().readValue(payload, MenuItemReviewImportJob.class);
+
+    assertFalse(payload.contains("importService"));
+    assertEquals("reviews.json", loaded.getFilename());
+    assertEquals(MenuItemReviewImportService.JSON, loaded.getFormat());
+    assertEquals(9L, loaded.getUploadId());
+  }
+}
@@ -0,0 +1,100 @@
+package edu.ucsb.cs156.example.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+@SuppressWarnings("unchecked")
+public class MenuItemReviewFilterTests {
+  private Root<MenuItemReview> root;
+  private CriteriaQuery<?> query;
+  private CriteriaBuilder cb;
+
+  private Path<Long> id;
+  private Path<Object> itemId;
+  private Path<Object> reviewerEmail;
+  private Path<Integer> stars;
+  private Path<LocalDateTime> dateReviewed;
+
+  private final Predicate combined = mock(Predicate.class);
+
+  @BeforeEach
+  public void setup() {
+    root = mock(Root.class);
+    query = mock(CriteriaQuery.class);
+    cb = mock(CriteriaBuilder.class);
+    id = mock(Path.class);
+    itemId = mock(Path.class);
+    reviewerEmail = mock(Path.class);
+    stars = mock(Path.class);
+    dateReviewed = mock(Path.class);
+    when(root.<Long>get("id")).thenReturn(id);
+    when(root.get("itemId")).thenReturn(itemId);
+    when(root.get("reviewerEmail")).thenReturn(reviewerEmail);
+    when(root.<Integer>get("stars")).thenReturn(stars);
+    when(root.<LocalDateTime>get("dateReviewed")).thenReturn(dateReviewed);
+    when(cb.and(any(Predicate[].class))).thenReturn(combined);
+  }
+
+  @Test
+  public void an_empty_filter_only_seeks_past_the_cursor() {
+    Predicate result =
+        new MenuItemReviewFilter().toSpecification(40L).toPredicate(root, query, cb);
+
+    assertEquals(combined, result);
+    verify(cb).greaterThan(id, 40L);
+    verify(cb, never()).equal(any(Expression.class), any(Object.class));
+    verify(cb, never()).greaterThanOrEqualTo(any(Expression.class), anyInt());
+    verify(cb, never()).lessThanOrEqualTo(any(Expression.class), anyInt());
+    verify(root, never()).get("dateReviewed");
+
+    ArgumentCaptor<Predicate[]> predicates = ArgumentCaptor.forClass(Predicate[].class);
+    verify(cb).and(predicates.capture());
+    assertEquals(1, predicates.getValue().length);
+  }
+
+  @Test
+  public void each_condition_that_is_set_is_added() {
+    LocalDateTime from = LocalDateTime.parse("2022-01-01T00:00:00");
+    LocalDateTime to = LocalDateTime.parse("2022-01-31T23:59:59");
+    MenuItemReviewFilter filter =
+        MenuItemReviewFilter.builder()
+            .itemId(7L)
+            .reviewerEmail("cgaucho@ucsb.edu")
+            .minStars(2)
+            .maxStars(4)
+            .reviewedFrom(from)
+            .reviewedTo(to)
+            .build();
+
+    filter.toSpecification(0L).toPredicate(root, query, cb);
+
+    verify(cb).greaterThan(id, 0L);
+    verify(cb).equal(itemId, 7L);
+    verify(cb).equal(reviewerEmail, "cgaucho@ucsb.edu");
+    verify(cb).greaterThanOrEqualTo(stars, 2);
+    verify(cb).lessThanOrEqualTo(stars, 4);
+    verify(cb).greaterThanOrEqualTo(dateReviewed, from);
+    verify(cb).lessThanOrEqualTo(dateReviewed, to);
+
+    ArgumentCaptor<Predicate[]> predicates = ArgumentCaptor.forClass(Predicate[].class);
+    verify(cb).and(predicates.capture());
+    assertEquals(7, predicates.getValue().length);
+  }
+}
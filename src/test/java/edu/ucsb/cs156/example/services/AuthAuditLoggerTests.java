@@ -0,0 +1,127 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AuthAuditLoggerTests {
+  private final Logger logger = (Logger) LoggerFactory.getLogger(AuthAuditLogger.LOGGER_NAME);
+
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  private Level originalLevel;
+
+  private AuthAuditLogger authAuditLogger;
+
+  private final List<GrantedAuthority> roles =
+      List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+  @BeforeEach
+  public void setup() {
+    originalLevel = logger.getLevel();
+    appender.start();
+    logger.addAppender(appender);
+    authAuditLogger = new AuthAuditLogger();
+    ReflectionTestUtils.setField(authAuditLogger, "sampleRate", 0.25);
+  }
+
+  @AfterEach
+  public void teardown() {
+    logger.detachAppender(appender);
+    logger.setLevel(originalLevel);
+  }
+
+  private List<String> messages() {
+    return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+  }
+
+  @Test
+  public void login_and_userStored_are_logged_at_info() {
+    logger.setLevel(Level.INFO);
+
+    authAuditLogger.login("cgaucho@ucsb.edu", roles);
+    authAuditLogger.userStored("cgaucho@ucsb.edu", true);
+
+    assertEquals(
+        List.of(
+            "event=login email=cgaucho@ucsb.edu roles=[ROLE_ADMIN,ROLE_USER]",
+            "event=userStored email=cgaucho@ucsb.edu admin=true"),
+        messages());
+    assertEquals(Level.INFO, appender.list.get(0).getLevel());
+  }
+
+  @Test
+  public void nothing_is_logged_when_the_level_is_off() {
+    logger.setLevel(Level.OFF);
+
+    authAuditLogger.login("cgaucho@ucsb.edu", roles);
+    authAuditLogger.lookup("currentUser", "cgaucho@ucsb.edu", roles);
+    authAuditLogger.attributes("cgaucho@ucsb.edu", Map.of("email", "cgaucho@ucsb.edu"));
+
+    assertEquals(List.of(), messages());
+  }
+
+  @Test
+  public void lookups_are_sampled_at_debug() {
+    logger.setLevel(Level.DEBUG);
+    authAuditLogger.random = () -> 0.2;
+
+    authAuditLogger.lookup("currentUser", "cgaucho@ucsb.edu", roles);
+    authAuditLogger.random = () -> 0.25;
+    authAuditLogger.lookup("currentUser", "ldelplaya@ucsb.edu", roles);
+
+    assertEquals(
+        List.of(
+            "event=currentUser principal=cgaucho@ucsb.edu roles=[ROLE_ADMIN,ROLE_USER]"
+                + " sampleRate=0.25"),
+        messages());
+    assertEquals(Level.DEBUG, appender.list.get(0).getLevel());
+  }
+
+  @Test
+  public void lookups_are_not_sampled_at_info() {
+    logger.setLevel(Level.INFO);
+    authAuditLogger.random =
+        () -> {
+          throw new AssertionError("sampled a lookup that cannot be logged");
+        };
+
+    authAuditLogger.lookup("currentUser", "cgaucho@ucsb.edu", roles);
+
+    assertEquals(List.of(), messages());
+  }
+
+  @Test
+  public void attributes_are_logged_only_at_trace() {
+    Map<String, Object> attributes = Map.of("email", "cgaucho@ucsb.edu");
+    logger.setLevel(Level.DEBUG);
+    authAuditLogger.attributes("cgaucho@ucsb.edu", attributes);
+    assertEquals(List.of(), messages());
+
+    logger.setLevel(Level.TRACE);
+    authAuditLogger.attributes("cgaucho@ucsb.edu", attributes);
+
+    assertEquals(
+        List.of("event=attributes email=cgaucho@ucsb.edu attributes={email=cgaucho@ucsb.edu}"),
+        messages());
+  }
+
+  @Test
+  public void the_default_random_is_in_the_unit_interval() {
+    double sample = authAuditLogger.random.getAsDouble();
+
+    assertEquals(true, sample >= 0 && sample < 1);
+  }
+}
@@ -0,0 +1,142 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.UserChangedEvent;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class CurrentUserServiceImplTests {
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private GrantedAuthoritiesService grantedAuthoritiesService;
+
+  @Mock private AuthAuditLogger authAuditLogger;
+
+  @InjectMocks private CurrentUserServiceImpl currentUserService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(currentUserService, "userCacheTtlMs", 60000L);
+    ReflectionTestUtils.setField(currentUserService, "userCacheSize", 100);
+    currentUserService.createUserCache();
+  }
+
+  private OAuth2AuthenticationToken login(String email) {
+    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    Map<String, Object> attributes =
+        Map.of(
+            "email", email,
+            "sub", "sub-" + email,
+            "picture", "https://example.org/picture.jpg",
+            "name", "Chris Gaucho",
+            "given_name", "Chris",
+            "family_name", "Gaucho",
+            "email_verified", true,
+            "locale", "en",
+            "hd", "ucsb.edu");
+    return new OAuth2AuthenticationToken(
+        new DefaultOAuth2User(authorities, attributes, "email"), authorities, "google");
+  }
+
+  private User stored(String email) {
+    return User.builder().id(1L).email(email).build();
+  }
+
+  @Test
+  public void stored_user_is_read_once_and_then_served_from_the_cache() {
+    // arrange
+    User user = stored("cgaucho@ucsb.edu");
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(user));
+
+    // act
+    User first = currentUserService.getOAuth2AuthenticatedUser(null, login("cgaucho@ucsb.edu"));
+    User second = currentUserService.getOAuth2AuthenticatedUser(null, login("cgaucho@ucsb.edu"));
+
+    // assert
+    assertSame(user, first);
+    assertSame(user, second);
+    verify(userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+    verify(userRepository, never()).save(any());
+  }
+
+  @Test
+  public void new_user_is_stored_once() {
+    // arrange
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+
+    // act
+    User first = currentUserService.getOAuth2AuthenticatedUser(null, login("cgaucho@ucsb.edu"));
+    User second = currentUserService.getOAuth2AuthenticatedUser(null, login("cgaucho@ucsb.edu"));
+
+    // assert
+    assertSame(first, second);
+    assertEquals("cgaucho@ucsb.edu", first.getEmail());
+    assertEquals("Chris Gaucho", first.getFullName());
+    verify(userRepository, times(1)).save(first);
+    verify(authAuditLogger, times(1)).userStored("cgaucho@ucsb.edu", false);
+  }
+
+  @Test
+  public void user_changed_event_drops_only_that_user_from_the_cache() {
+    // arrange
+    User before = stored("cgaucho@ucsb.edu");
+    User after = stored("cgaucho@ucsb.edu");
+    after.setAdmin(true);
+    when(userRepository.findByEmail("cgaucho@ucsb.edu"))
+        .thenReturn(Optional.of(before))
+        .thenReturn(Optional.of(after));
+    when(userRepository.findByEmail("ldelplaya@ucsb.edu"))
+        .thenReturn(Optional.of(stored("ldelplaya@ucsb.edu")));
+    currentUserService.getOAuth2AuthenticatedUser(null, login("cgaucho@ucsb.edu"));
+    currentUserService.getOAuth2AuthenticatedUser(null, login("ldelplaya@ucsb.edu"));
+
+    // act
+    currentUserService.onUserChanged(new UserChangedEvent("cgaucho@ucsb.edu"));
+    User changed = currentUserService.getOAuth2AuthenticatedUser(null, login("cgaucho@ucsb.edu"));
+    currentUserService.getOAuth2AuthenticatedUser(null, login("ldelplaya@ucsb.edu"));
+
+    // assert
+    assertSame(after, changed);
+    verify(userRepository, times(2)).findByEmail("cgaucho@ucsb.edu");
+    verify(userRepository, times(1)).findByEmail("ldelplaya@ucsb.edu");
+  }
+
+  @Test
+  public void user_stored_first_by_another_request_is_read_back() {
+    // arrange
+    User storedElsewhere = stored("cgaucho@ucsb.edu");
+    when(userRepository.findByEmail("cgaucho@ucsb.edu"))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(storedElsewhere));
+    when(userRepository.save(any())).thenThrow(new DataIntegrityViolationException("dup"));
+
+    // act
+    User user = currentUserService.getOAuth2AuthenticatedUser(null, login("cgaucho@ucsb.edu"));
+
+    // assert
+    assertSame(storedElsewhere, user);
+  }
+}
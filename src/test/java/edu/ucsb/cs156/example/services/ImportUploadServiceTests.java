@@ -0,0 +1,128 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.ImportUpload;
+import edu.ucsb.cs156.example.entities.ImportUploadChunk;
+import edu.ucsb.cs156.example.repositories.ImportUploadChunksRepository;
+import edu.ucsb.cs156.example.repositories.ImportUploadsRepository;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ImportUploadServiceTests {
+
+  @Mock private EntityManager entityManager;
+
+  @Mock private ImportUploadsRepository importUploadsRepository;
+
+  @Mock private ImportUploadChunksRepository importUploadChunksRepository;
+
+  @InjectMocks private ImportUploadService importUploadService;
+
+  // the chunks persisted, and how many had been persisted at each clear
+  private final List<ImportUploadChunk> persisted = new ArrayList<>();
+
+  private final List<Integer> clears = new ArrayList<>();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(importUploadService, "chunkBytes", 4);
+    doAnswer(invocation -> persisted.add(invocation.getArgument(0)))
+        .when(entityManager)
+        .persist(any(ImportUploadChunk.class));
+    doAnswer(invocation -> clears.add(persisted.size())).when(entityManager).clear();
+  }
+
+  private byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void store_writes_the_content_in_chunks_and_clears_each_one() throws Exception {
+    // arrange
+    when(importUploadsRepository.save(any()))
+        .thenReturn(ImportUpload.builder().id(7L).filename("reviews.csv").build());
+
+    // act
+    long id =
+        importUploadService.store("reviews.csv", new ByteArrayInputStream(bytes("0123456789")));
+
+    // assert
+    assertEquals(7L, id);
+    verify(importUploadsRepository, times(1))
+        .save(
+            argThat(
+                upload ->
+                    upload.getFilename().equals("reviews.csv")
+                        && upload.getCreatedAt() != null
+                        && upload.getImportedCount() == null));
+    assertEquals(3, persisted.size());
+    assertEquals(List.of(1, 2, 3), clears);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(7L, persisted.get(i).getUploadId());
+      assertEquals(i, persisted.get(i).getChunkNumber());
+    }
+    assertArrayEquals(bytes("0123"), persisted.get(0).getData());
+    assertArrayEquals(bytes("89"), persisted.get(2).getData());
+  }
+
+  @Test
+  public void store_of_an_empty_file_writes_no_chunks() throws Exception {
+    when(importUploadsRepository.save(any())).thenReturn(ImportUpload.builder().id(7L).build());
+
+    importUploadService.store("empty.csv", new ByteArrayInputStream(new byte[0]));
+
+    assertEquals(0, persisted.size());
+  }
+
+  @Test
+  public void open_reads_the_chunks_in_order_one_at_a_time() throws Exception {
+    // arrange
+    when(importUploadChunksRepository.findData(7L, 0)).thenReturn(Optional.of(bytes("0123")));
+    when(importUploadChunksRepository.findData(7L, 1)).thenReturn(Optional.of(bytes("45")));
+    when(importUploadChunksRepository.findData(7L, 2)).thenReturn(Optional.empty());
+
+    // act
+    InputStream content = importUploadService.open(7L);
+
+    // assert: no more than the chunk being read and the next one are fetched ahead of time
+    verify(importUploadChunksRepository, times(2)).findData(eq(7L), anyInt());
+    assertEquals("012345", new String(content.readAllBytes(), StandardCharsets.UTF_8));
+    verify(importUploadChunksRepository, times(3)).findData(eq(7L), anyInt());
+  }
+
+  @Test
+  public void open_of_an_upload_without_content_is_empty() throws Exception {
+    when(importUploadChunksRepository.findData(7L, 0)).thenReturn(Optional.empty());
+
+    assertEquals(0, importUploadService.open(7L).readAllBytes().length);
+  }
+
+  @Test
+  public void discard_deletes_the_chunks() {
+    importUploadService.discard(7L);
+
+    verify(importUploadChunksRepository, times(1)).deleteByUploadId(7L);
+  }
+}
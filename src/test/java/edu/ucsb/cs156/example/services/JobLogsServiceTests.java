@@ -4,18 +4,25 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
-import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.models.JobLogRange;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.services.jobs.JobService;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 public class JobLogsServiceTests {
 
   @Mock private JobsRepository jobRepository;
 
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
   @InjectMocks private JobService jobService;
 
   @BeforeEach
@@ -23,13 +30,16 @@ public class JobLogsServiceTests {
     MockitoAnnotations.openMocks(this);
   }
 
+  private JobLogLine line(long jobId, long lineNumber, String message) {
+    return JobLogLine.builder().jobId(jobId).lineNumber(lineNumber).message(message).build();
+  }
+
   @Test
   void test_getJobLogs_with_log() {
     // Arrange
     Long jobId = 1L;
-    Job job = Job.builder().build();
-    job.setLog("This is a job log");
-    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobRepository.findLogById(jobId)).thenReturn(Optional.of("This is a job log"));
 
     // Act
     String result = jobService.getJobLogs(jobId);
@@ -38,13 +48,29 @@ public class JobLogsServiceTests {
     assertEquals("This is a job log", result);
   }
 
+  @Test
+  void test_getJobLogs_assembles_log_lines() {
+    // Arrange
+    Long jobId = 4L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 0L, Pageable.unpaged()))
+        .thenReturn(List.of(line(jobId, 0, "first"), line(jobId, 1, "second")));
+
+    // Act
+    String result = jobService.getJobLogs(jobId);
+
+    // Assert
+    assertEquals("first\nsecond", result);
+    verify(jobRepository, never()).findLogById(anyLong());
+  }
+
   @Test
   void test_getJobLogs_with_null_log() {
     // Arrange
     Long jobId = 2L;
-    Job job = Job.builder().build();
-    job.setLog(null);
-    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobRepository.findLogById(jobId)).thenReturn(Optional.empty());
 
     // Act
     String result = jobService.getJobLogs(jobId);
@@ -57,9 +83,139 @@ public class JobLogsServiceTests {
   void test_getJobLogs_job_not_found() {
     // Arrange
     Long jobId = 3L;
-    when(jobRepository.findById(jobId)).thenReturn(Optional.empty());
+    when(jobRepository.existsById(jobId)).thenReturn(false);
 
     // Act & Assert
     assertThrows(IllegalArgumentException.class, () -> jobService.getJobLogs(jobId));
   }
+
+  @Test
+  void test_getJobLogRange_returns_lines_from_offset() {
+    // Arrange
+    Long jobId = 5L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 2L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(line(jobId, 2, "two"), line(jobId, 3, "three")));
+
+    // Act
+    JobLogRange range = jobService.getJobLogRange(jobId, 2L, 2);
+
+    // Assert
+    assertEquals(2L, range.getOffset());
+    assertEquals(4L, range.getNextOffset());
+    assertEquals(List.of("two", "three"), range.getLines());
+  }
+
+  @Test
+  void test_getJobLogRange_past_the_end_is_empty() {
+    // Arrange
+    Long jobId = 5L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobLogLinesRepository.existsByJobId(jobId)).thenReturn(true);
+
+    // Act
+    JobLogRange range = jobService.getJobLogRange(jobId, 9L, 2);
+
+    // Assert
+    assertEquals(9L, range.getOffset());
+    assertEquals(9L, range.getNextOffset());
+    assertEquals(List.of(), range.getLines());
+    verify(jobRepository, never()).findLogById(anyLong());
+  }
+
+  @Test
+  void test_getJobLogRange_with_limit_below_one_is_empty() {
+    // Arrange
+    Long jobId = 5L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+
+    // Act
+    JobLogRange range = jobService.getJobLogRange(jobId, 3L, 0);
+
+    // Assert
+    assertEquals(3L, range.getNextOffset());
+    assertEquals(List.of(), range.getLines());
+    verifyNoInteractions(jobLogLinesRepository);
+  }
+
+  @Test
+  void test_getJobLogRange_slices_legacy_log() {
+    // Arrange
+    Long jobId = 6L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobRepository.findLogById(jobId)).thenReturn(Optional.of("a\nb\nc\nd"));
+
+    // Act
+    JobLogRange middle = jobService.getJobLogRange(jobId, 1L, 2);
+    JobLogRange rest = jobService.getJobLogRange(jobId, 3L, null);
+    JobLogRange beyond = jobService.getJobLogRange(jobId, 10L, 5);
+
+    // Assert
+    assertEquals(1L, middle.getOffset());
+    assertEquals(3L, middle.getNextOffset());
+    assertEquals(List.of("b", "c"), middle.getLines());
+    assertEquals(List.of("d"), rest.getLines());
+    assertEquals(4L, rest.getNextOffset());
+    assertEquals(4L, beyond.getOffset());
+    assertEquals(List.of(), beyond.getLines());
+  }
+
+  @Test
+  void test_getJobLogTail_returns_last_lines_in_order() {
+    // Arrange
+    Long jobId = 7L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobLogLinesRepository.findByJobIdOrderByLineNumberDesc(jobId, PageRequest.of(0, 2)))
+        .thenReturn(List.of(line(jobId, 9, "nine"), line(jobId, 8, "eight")));
+
+    // Act
+    JobLogRange range = jobService.getJobLogTail(jobId, 2);
+
+    // Assert
+    assertEquals(8L, range.getOffset());
+    assertEquals(10L, range.getNextOffset());
+    assertEquals(List.of("eight", "nine"), range.getLines());
+  }
+
+  @Test
+  void test_getJobLogTail_of_legacy_log() {
+    // Arrange
+    Long jobId = 8L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobRepository.findLogById(jobId)).thenReturn(Optional.of("a\nb\nc"));
+
+    // Act
+    JobLogRange two = jobService.getJobLogTail(jobId, 2);
+    JobLogRange all = jobService.getJobLogTail(jobId, 5);
+
+    // Assert
+    assertEquals(1L, two.getOffset());
+    assertEquals(3L, two.getNextOffset());
+    assertEquals(List.of("b", "c"), two.getLines());
+    assertEquals(List.of("a", "b", "c"), all.getLines());
+  }
+
+  @Test
+  void test_getJobLogTail_below_one_is_empty() {
+    // Arrange
+    Long jobId = 8L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+
+    // Act
+    JobLogRange range = jobService.getJobLogTail(jobId, 0);
+
+    // Assert
+    assertEquals(List.of(), range.getLines());
+    verifyNoInteractions(jobLogLinesRepository);
+  }
+
+  @Test
+  void test_getJobLogTail_job_not_found() {
+    // Arrange
+    when(jobRepository.existsById(9L)).thenReturn(false);
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> jobService.getJobLogTail(9L, 3));
+  }
 }
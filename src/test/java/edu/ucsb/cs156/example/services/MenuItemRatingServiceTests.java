@@ -0,0 +1,224 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.MenuItemRatingRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class MenuItemRatingServiceTests {
+  @Mock private MenuItemRatingRepository menuItemRatingRepository;
+
+  @Mock private MenuItemReviewRepository menuItemReviewRepository;
+
+  @InjectMocks private MenuItemRatingService menuItemRatingService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(menuItemRatingService, "self", menuItemRatingService);
+  }
+
+  private MenuItemReview review(Long id, long itemId, int stars) {
+    return MenuItemReview.builder()
+        .id(id)
+        .itemId(itemId)
+        .reviewerEmail("cgaucho@ucsb.edu")
+        .stars(stars)
+        .dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00"))
+        .build();
+  }
+
+  @Test
+  public void getRating_returns_the_stored_rating() {
+    MenuItemRating stored =
+        MenuItemRating.builder().itemId(7L).reviewCount(4).starsTotal(14).fourStars(4).build();
+    when(menuItemRatingRepository.findById(7L)).thenReturn(Optional.of(stored));
+
+    MenuItemRating rating = menuItemRatingService.getRating(7L);
+
+    assertEquals(stored, rating);
+    assertEquals(3.5, rating.getAverageStars());
+  }
+
+  @Test
+  public void getRating_of_an_item_without_reviews_has_no_average() {
+    when(menuItemRatingRepository.findById(7L)).thenReturn(Optional.empty());
+
+    MenuItemRating rating = menuItemRatingService.getRating(7L);
+
+    assertEquals(MenuItemRating.builder().itemId(7L).build(), rating);
+    assertNull(rating.getAverageStars());
+  }
+
+  @Test
+  public void saveReview_adds_a_new_review_to_its_rating() {
+    // arrange
+    MenuItemReview review = review(null, 7L, 4);
+    MenuItemReview saved = review(15L, 7L, 4);
+    when(menuItemReviewRepository.save(review)).thenReturn(saved);
+    MenuItemRating change =
+        MenuItemRating.builder().itemId(7L).reviewCount(1).starsTotal(4).fourStars(1).build();
+    when(menuItemRatingRepository.addToRating(change)).thenReturn(1);
+
+    // act
+    MenuItemReview result = menuItemRatingService.saveReview(review);
+
+    // assert
+    assertEquals(saved, result);
+    verify(menuItemReviewRepository, never()).findByIdForUpdate(anyLong());
+    verify(menuItemRatingRepository, times(1)).addToRating(change);
+    verify(menuItemRatingRepository, never()).insertEmptyRating(anyLong());
+  }
+
+  @Test
+  public void saveReview_creates_the_rating_of_an_item_reviewed_for_the_first_time() {
+    // arrange
+    MenuItemReview review = review(null, 8L, 1);
+    when(menuItemReviewRepository.save(review)).thenReturn(review);
+    MenuItemRating change =
+        MenuItemRating.builder().itemId(8L).reviewCount(1).starsTotal(1).oneStar(1).build();
+    when(menuItemRatingRepository.addToRating(change)).thenReturn(0, 1);
+
+    // act
+    menuItemRatingService.saveReview(review);
+
+    // assert
+    InOrder inOrder = inOrder(menuItemRatingRepository);
+    inOrder.verify(menuItemRatingRepository).addToRating(change);
+    inOrder.verify(menuItemRatingRepository).insertEmptyRating(8L);
+    inOrder.verify(menuItemRatingRepository).addToRating(change);
+  }
+
+  @Test
+  public void saveReview_adds_to_the_rating_another_review_of_the_item_just_created() {
+    // arrange: a concurrent first review of the item inserted its rating after our update missed
+    MenuItemReview review = review(null, 8L, 1);
+    when(menuItemReviewRepository.save(review)).thenReturn(review);
+    MenuItemRating change =
+        MenuItemRating.builder().itemId(8L).reviewCount(1).starsTotal(1).oneStar(1).build();
+    when(menuItemRatingRepository.addToRating(change)).thenReturn(0, 1);
+    doThrow(new DataIntegrityViolationException("duplicate key"))
+        .when(menuItemRatingRepository)
+        .insertEmptyRating(8L);
+
+    // act
+    menuItemRatingService.saveReview(review);
+
+    // assert
+    verify(menuItemRatingRepository, times(2)).addToRating(change);
+    verify(menuItemRatingRepository, never()).save(any());
+  }
+
+  @Test
+  public void saveReview_moves_a_changed_review_between_ratings() {
+    // arrange
+    MenuItemReview stored = review(15L, 7L, 2);
+    MenuItemReview changed = review(15L, 9L, 3);
+    when(menuItemReviewRepository.findByIdForUpdate(15L)).thenReturn(Optional.of(stored));
+    when(menuItemReviewRepository.save(changed)).thenReturn(changed);
+    when(menuItemRatingRepository.addToRating(any())).thenReturn(1);
+
+    // act
+    menuItemRatingService.saveReview(changed);
+
+    // assert
+    InOrder inOrder = inOrder(menuItemRatingRepository, menuItemReviewRepository);
+    inOrder
+        .verify(menuItemRatingRepository)
+        .addToRating(
+            MenuItemRating.builder()
+                .itemId(7L)
+                .reviewCount(-1)
+                .starsTotal(-2)
+                .twoStars(-1)
+                .build());
+    inOrder.verify(menuItemReviewRepository).save(changed);
+    inOrder
+        .verify(menuItemRatingRepository)
+        .addToRating(
+            MenuItemRating.builder()
+                .itemId(9L)
+                .reviewCount(1)
+                .starsTotal(3)
+                .threeStars(1)
+                .build());
+  }
+
+  @Test
+  public void saveReview_of_a_review_that_is_not_stored_only_adds_it() {
+    MenuItemReview review = review(15L, 7L, 5);
+    when(menuItemReviewRepository.findByIdForUpdate(15L)).thenReturn(Optional.empty());
+    when(menuItemReviewRepository.save(review)).thenReturn(review);
+    when(menuItemRatingRepository.addToRating(any())).thenReturn(1);
+
+    menuItemRatingService.saveReview(review);
+
+    verify(menuItemRatingRepository, times(1))
+        .addToRating(
+            MenuItemRating.builder()
+                .itemId(7L)
+                .reviewCount(1)
+                .starsTotal(5)
+                .fiveStars(1)
+                .build());
+  }
+
+  @Test
+  public void deleteReview_removes_the_stored_review_from_its_rating() {
+    // arrange
+    MenuItemReview stored = review(15L, 7L, 1);
+    when(menuItemReviewRepository.findByIdForUpdate(15L)).thenReturn(Optional.of(stored));
+    when(menuItemRatingRepository.addToRating(any())).thenReturn(1);
+
+    // act
+    menuItemRatingService.deleteReview(15L);
+
+    // assert
+    verify(menuItemReviewRepository, times(1)).delete(stored);
+    verify(menuItemRatingRepository, times(1))
+        .addToRating(
+            MenuItemRating.builder().itemId(7L).reviewCount(-1).starsTotal(-1).oneStar(-1).build());
+  }
+
+  @Test
+  public void deleteReview_of_a_missing_review_does_nothing() {
+    when(menuItemReviewRepository.findByIdForUpdate(15L)).thenReturn(Optional.empty());
+
+    menuItemRatingService.deleteReview(15L);
+
+    verify(menuItemReviewRepository, never()).delete(any());
+    verify(menuItemRatingRepository, never()).addToRating(any());
+  }
+
+  @Test
+  public void addToRatings_ignores_changes_without_an_item() {
+    MenuItemRating change = MenuItemRating.builder().reviewCount(1).starsTotal(3).build();
+
+    menuItemRatingService.addToRatings(List.of(change));
+
+    verify(menuItemRatingRepository, never()).addToRating(any());
+    verify(menuItemRatingRepository, never()).insertEmptyRating(anyLong());
+  }
+}
@@ -0,0 +1,332 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.ImportUpload;
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.ImportUploadsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class MenuItemReviewImportServiceTests {
+  private static final String CSV_HEADER = "itemId,reviewerEmail,stars,dateReviewed,comments\n";
+
+  @Mock private EntityManager entityManager;
+
+  @Mock private JobContext ctx;
+
+  @Mock private MenuItemRatingService menuItemRatingService;
+
+  @Mock private ImportUploadService importUploadService;
+
+  @Mock private ImportUploadsRepository importUploadsRepository;
+
+  @Spy private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @Spy private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+  @InjectMocks private MenuItemReviewImportService importService;
+
+  // the reviews persisted, and how many had been persisted at each flush
+  private final List<MenuItemReview> persisted = new ArrayList<>();
+
+  private final List<Integer> flushes = new ArrayList<>();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(importService, "self", importService);
+    ReflectionTestUtils.setField(importService, "batchSize", 2);
+    doAnswer(invocation -> persisted.add(invocation.getArgument(0)))
+        .when(entityManager)
+        .persist(any(MenuItemReview.class));
+    doAnswer(invocation -> flushes.add(persisted.size())).when(entityManager).flush();
+    when(importUploadsRepository.findById(1L))
+        .thenReturn(Optional.of(ImportUpload.builder().id(1L).build()));
+    when(importUploadsRepository.findByIdForUpdate(1L))
+        .thenReturn(Optional.of(ImportUpload.builder().id(1L).build()));
+  }
+
+  // imports the content as upload 1
+  private int importReviews(String format, String content) throws Exception {
+    when(importUploadService.open(1L))
+        .thenAnswer(
+            invocation -> new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    return importService.importReviews(format, 1L, ctx);
+  }
+
+  @Test
+  public void importReviews_inserts_csv_rows_in_batches() throws Exception {
+    // arrange
+    String csv =
+        CSV_HEADER
+            + "7,cgaucho@ucsb.edu,5,2022-01-03T00:00:00,great\n"
+            + "\n"
+            + "7,ldelplaya@ucsb.edu,3,2022-01-04T12:30:00,\"fine, I guess\"\n"
+            + "8,cgaucho@ucsb.edu,1,2022-01-05T08:00:00,\n";
+
+    // act
+    int imported = importReviews(MenuItemReviewImportService.CSV, csv);
+
+    // assert
+    assertEquals(3, imported);
+    assertEquals(List.of(2, 3), flushes);
+    verify(entityManager, times(2)).clear();
+    assertEquals(
+        MenuItemReview.builder()
+            .itemId(7L)
+            .reviewerEmail("ldelplaya@ucsb.edu")
+            .stars(3)
+            .dateReviewed(LocalDateTime.parse("2022-01-04T12:30:00"))
+            .comments("fine, I guess")
+            .build(),
+        persisted.get(1));
+    verify(menuItemRatingService, times(1))
+        .addToRatings(
+            argThat(
+                ratings ->
+                    Set.copyOf(ratings)
+                        .equals(
+                            Set.of(
+                                MenuItemRating.builder()
+                                    .itemId(7L)
+                                    .reviewCount(2)
+                                    .starsTotal(8)
+                                    .threeStars(1)
+                                    .fiveStars(1)
+                                    .build(),
+                                MenuItemRating.builder()
+                                    .itemId(8L)
+                                    .reviewCount(1)
+                                    .starsTotal(1)
+                                    .oneStar(1)
+                                    .build()))));
+    verify(ctx, times(1)).progress(0, 3);
+    verify(ctx, times(1)).progress(3, 3);
+    verify(ctx, never()).log(anyString());
+    verify(importUploadsRepository, times(1)).markImported(1L, 3);
+    verify(importUploadService, times(1)).discard(1L);
+  }
+
+  @Test
+  public void importReviews_inserts_a_json_array_of_reviews() throws Exception {
+    // arrange
+    String json =
+        "[{\"id\": 12, \"itemId\": 7, \"reviewerEmail\": \"cgaucho@ucsb.edu\", \"stars\": 4,"
+            + " \"dateReviewed\": \"2022-01-03T00:00:00\", \"comments\": \"tasty\"},"
+            + " {\"itemId\": 9, \"reviewerEmail\": \"ldelplaya@ucsb.edu\", \"stars\": 2,"
+            + " \"dateReviewed\": \"2022-01-04T00:00:00\"}]";
+
+    // act
+    int imported = importReviews(MenuItemReviewImportService.JSON, json);
+
+    // assert
+    assertEquals(2, imported);
+    assertEquals(List.of(2, 2), flushes);
+    assertNull(persisted.get(0).getId());
+    assertEquals(
+        MenuItemReview.builder()
+            .itemId(9L)
+            .reviewerEmail("ldelplaya@ucsb.edu")
+            .stars(2)
+            .dateReviewed(LocalDateTime.parse("2022-01-04T00:00:00"))
+            .build(),
+        persisted.get(1));
+    verify(ctx, times(1)).progress(2, 2);
+  }
+
+  @Test
+  public void importReviews_of_no_rows_inserts_nothing() throws Exception {
+    int imported = importReviews(MenuItemReviewImportService.JSON, "[]");
+
+    assertEquals(0, imported);
+    assertEquals(0, persisted.size());
+    verify(ctx, times(2)).progress(0, 0);
+  }
+
+  @Test
+  public void importReviews_logs_invalid_rows_and_imports_nothing() throws Exception {
+    // arrange
+    String csv =
+        CSV_HEADER
+            + "7,cgaucho@ucsb.edu,5,2022-01-03T00:00:00,great\n"
+            + ",cgaucho@ucsb.edu,5,2022-01-03T00:00:00,no item\n"
+            + "7,cgaucho,5,2022-01-03T00:00:00,bad email\n"
+            + "7,cgaucho@ucsb.edu,0,2022-01-03T00:00:00,too few stars\n";
+
+    // act
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> importReviews(MenuItemReviewImportService.CSV, csv));
+
+    // assert
+    assertEquals("3 of 4 rows are invalid; no reviews were imported", e.getMessage());
+    verify(ctx, times(1)).log("Row 2: itemId is missing");
+    verify(ctx, times(1)).log("Row 3: reviewerEmail is not an email address");
+    verify(ctx, times(1)).log("Row 4: stars must be from 1 to 5");
+    verify(ctx, never()).progress(anyLong(), anyLong());
+    assertEquals(0, persisted.size());
+    verify(menuItemRatingService, never()).addToRatings(any());
+    // the job fails and is not run again, so its upload is no longer needed
+    verify(importUploadService, times(1)).discard(1L);
+    verify(importUploadsRepository, never()).markImported(anyLong(), anyInt());
+  }
+
+  @Test
+  public void importReviews_of_an_upload_imported_before_adds_nothing() throws Exception {
+    // arrange: an earlier run committed the import, then its server stopped
+    when(importUploadsRepository.findById(1L))
+        .thenReturn(Optional.of(ImportUpload.builder().id(1L).importedCount(4).build()));
+
+    // act
+    int imported = importService.importReviews(MenuItemReviewImportService.CSV, 1L, ctx);
+
+    // assert
+    assertEquals(4, imported);
+    verify(ctx, times(1)).log("The reviews in this upload were already imported");
+    verify(importUploadService, never()).open(anyLong());
+    assertEquals(0, persisted.size());
+  }
+
+  @Test
+  public void insertReviews_adds_nothing_if_another_run_imported_the_upload_first()
+      throws Exception {
+    // arrange: the upload was imported while this run was checking the rows
+    when(importUploadsRepository.findByIdForUpdate(1L))
+        .thenReturn(Optional.of(ImportUpload.builder().id(1L).importedCount(1).build()));
+    String csv = CSV_HEADER + "7,cgaucho@ucsb.edu,5,2022-01-03T00:00:00,great\n";
+
+    // act
+    int imported = importReviews(MenuItemReviewImportService.CSV, csv);
+
+    // assert
+    assertEquals(1, imported);
+    assertEquals(0, persisted.size());
+    verify(menuItemRatingService, never()).addToRatings(any());
+    verify(importUploadsRepository, never()).markImported(anyLong(), anyInt());
+  }
+
+  @Test
+  public void importReviews_rejects_an_upload_that_does_not_exist() {
+    when(importUploadsRepository.findById(2L)).thenReturn(Optional.empty());
+
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> importService.importReviews(MenuItemReviewImportService.CSV, 2L, ctx));
+
+    assertEquals("Upload 2 not found", e.getMessage());
+  }
+
+  @Test
+  public void insertReviews_rejects_an_upload_that_does_not_exist() {
+    when(importUploadsRepository.findByIdForUpdate(2L)).thenReturn(Optional.empty());
+
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> importService.insertReviews(MenuItemReviewImportService.CSV, 2L));
+
+    assertEquals("Upload 2 not found", e.getMessage());
+  }
+
+  @Test
+  public void importReviews_logs_at_most_the_first_hundred_invalid_rows() throws Exception {
+    // arrange
+    StringBuilder rows = new StringBuilder(CSV_HEADER);
+    for (int i = 0; i < MenuItemReviewImportService.MAX_REPORTED_ERRORS + 5; i++) {
+      rows.append("7,cgaucho@ucsb.edu,9,2022-01-03T00:00:00,\n");
+    }
+    String csv = rows.toString();
+
+    // act
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> importReviews(MenuItemReviewImportService.CSV, csv));
+
+    // assert
+    assertEquals("105 of 105 rows are invalid; no reviews were imported", e.getMessage());
+    verify(ctx, times(MenuItemReviewImportService.MAX_REPORTED_ERRORS)).log(anyString());
+    verify(ctx, times(1)).log("Row 100: stars must be from 1 to 5");
+    verify(ctx, never()).log("Row 101: stars must be from 1 to 5");
+  }
+
+  @Test
+  public void importReviews_rejects_an_unknown_format() {
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class, () -> importReviews("xml", ""));
+
+    assertEquals("Unknown import format xml", e.getMessage());
+  }
+
+  @Test
+  public void importReviews_reports_each_invalid_field() throws Exception {
+    // arrange
+    String csv =
+        CSV_HEADER
+            + "7,cgaucho@ucsb.edu,1,2022-01-03T00:00:00,fewest stars\n"
+            + "7,,5,2022-01-03T00:00:00,no email\n"
+            + "7,cgaucho@ucsb.edu,,2022-01-03T00:00:00,no stars\n"
+            + "7,cgaucho@ucsb.edu,6,,too many stars and no date\n";
+
+    // act
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> importReviews(MenuItemReviewImportService.CSV, csv));
+
+    // assert
+    verify(ctx, times(1)).log("Row 2: reviewerEmail is missing");
+    verify(ctx, times(1)).log("Row 3: stars is missing");
+    verify(ctx, times(1)).log("Row 4: dateReviewed is missing; stars must be from 1 to 5");
+    verify(ctx, times(3)).log(anyString());
+  }
+
+  @Test
+  public void importReviews_reports_a_json_review_without_stars_as_missing_them() {
+    // arrange
+    String json =
+        "[{\"itemId\": 7, \"reviewerEmail\": \"cgaucho@ucsb.edu\","
+            + " \"dateReviewed\": \"2022-01-03T00:00:00\"}]";
+
+    // act
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> importReviews(MenuItemReviewImportService.JSON, json));
+
+    // assert
+    verify(ctx, times(1)).log("Row 1: stars is missing");
+  }
+}
@@ -0,0 +1,148 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sql.DataSource;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.util.ClassUtils;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({NdjsonExportService.class, NdjsonExportServiceTests.FetchSizeRecorder.class})
+public class NdjsonExportServiceTests {
+  @Autowired private NdjsonExportService ndjsonExportService;
+
+  @Autowired private RestaurantRepository restaurantRepository;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private FetchSizeRecorder fetchSizeRecorder;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  /**
+   * Wraps the test DataSource so that the connections and statements it hands out are wrapped too,
+   * and records every fetch size set on a statement.
+   */
+  static class FetchSizeRecorder implements BeanPostProcessor {
+    final List<Integer> fetchSizes = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      return bean instanceof DataSource ? wrap(bean) : bean;
+    }
+
+    private Object wrap(Object target) {
+      return Proxy.newProxyInstance(
+          target.getClass().getClassLoader(),
+          ClassUtils.getAllInterfaces(target),
+          (proxy, method, args) -> {
+            if (method.getName().equals("setFetchSize")) {
+              fetchSizes.add((Integer) args[0]);
+            }
+            Object result;
+            try {
+              result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+            return result instanceof Connection || result instanceof PreparedStatement
+                ? wrap(result)
+                : result;
+          });
+    }
+  }
+
+  @BeforeEach
+  public void setup() {
+    fetchSizeRecorder.fetchSizes.clear();
+  }
+
+  // what the persistence context holds; the export must leave it as empty as it found it
+  private int managedEntities() {
+    return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+  }
+
+  @Test
+  public void export_writes_each_row_as_a_json_object_on_its_own_line() throws Exception {
+    // arrange
+    Restaurant first =
+        restaurantRepository.save(
+            Restaurant.builder().name("Freebirds").description("Burritos").build());
+    Restaurant second =
+        restaurantRepository.save(
+            Restaurant.builder().name("Habit").description("Burgers\nand shakes").build());
+    entityManager.flush();
+    entityManager.clear();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // act
+    long count = ndjsonExportService.export(restaurantRepository, out);
+
+    // assert
+    assertEquals(2L, count);
+    String ndjson = out.toString(StandardCharsets.UTF_8);
+    assertTrue(ndjson.endsWith("\n"));
+    List<Restaurant> exported = new ArrayList<>();
+    for (String line : ndjson.split("\n")) {
+      exported.add(objectMapper.readValue(line, Restaurant.class));
+    }
+    assertEquals(2, exported.size());
+    assertEquals(Set.of(first, second), Set.copyOf(exported));
+  }
+
+  @Test
+  public void export_reads_rows_a_fetch_size_at_a_time_and_detaches_each_one() throws Exception {
+    // arrange
+    for (int i = 0; i < 3; i++) {
+      restaurantRepository.save(Restaurant.builder().name("Restaurant " + i).build());
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    // act
+    long count = ndjsonExportService.export(restaurantRepository, new ByteArrayOutputStream());
+
+    // assert
+    assertEquals(3L, count);
+    assertTrue(fetchSizeRecorder.fetchSizes.contains(500));
+    assertEquals(0, managedEntities());
+  }
+
+  @Test
+  public void export_of_empty_table_writes_nothing() throws Exception {
+    // arrange
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // act
+    long count = ndjsonExportService.export(restaurantRepository, out);
+
+    // assert
+    assertEquals(0L, count);
+    assertEquals(0, out.size());
+  }
+}
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TtlCacheTests {
+  private final AtomicLong now = new AtomicLong();
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private TtlCache<String, String> cache;
+
+  // loads "value of <key> #<n>", where n counts every load
+  private final Function<String, String> loader =
+      key -> "value of " + key + " #" + loads.incrementAndGet();
+
+  @BeforeEach
+  public void setup() {
+    cache = new TtlCache<>(Duration.ofSeconds(60), 3, now::get);
+  }
+
+  @Test
+  public void get_loads_a_value_once_until_it_expires() {
+    assertEquals("value of a #1", cache.get("a", loader));
+    now.set(Duration.ofSeconds(59).toNanos());
+    assertEquals("value of a #1", cache.get("a", loader));
+
+    now.set(Duration.ofSeconds(60).toNanos());
+    assertEquals("value of a #2", cache.get("a", loader));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void null_values_are_not_cached() {
+    assertNull(cache.get("a", key -> null));
+    assertEquals(0, cache.size());
+    assertEquals("value of a #1", cache.get("a", loader));
+  }
+
+  @Test
+  public void a_value_that_loads_as_null_is_dropped() {
+    cache.get("a", loader);
+    now.set(Duration.ofSeconds(61).toNanos());
+
+    assertNull(cache.get("a", key -> null));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void invalidate_drops_one_value_and_invalidateAll_drops_them_all() {
+    cache.get("a", loader);
+    cache.get("b", loader);
+
+    cache.invalidate("a");
+    assertEquals("value of a #3", cache.get("a", loader));
+    assertEquals("value of b #2", cache.get("b", loader));
+
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+    assertEquals("value of b #4", cache.get("b", loader));
+  }
+
+  @Test
+  public void a_full_cache_drops_expired_values_first() {
+    cache.get("a", loader);
+    now.set(Duration.ofSeconds(30).toNanos());
+    cache.get("b", loader);
+    cache.get("c", loader);
+    now.set(Duration.ofSeconds(70).toNanos());
+
+    cache.get("d", loader);
+
+    assertEquals(3, cache.size());
+    assertEquals("value of b #2", cache.get("b", loader));
+    assertEquals("value of c #3", cache.get("c", loader));
+  }
+
+  @Test
+  public void a_full_cache_with_nothing_expired_is_emptied() {
+    cache.get("a", loader);
+    cache.get("b", loader);
+    cache.get("c", loader);
+
+    cache.get("d", loader);
+
+    assertEquals(1, cache.size());
+    assertEquals("value of d #4", cache.get("d", loader));
+    assertEquals("value of a #5", cache.get("a", loader));
+  }
+
+  @Test
+  public void the_default_clock_is_used_by_the_public_constructor() {
+    TtlCache<String, String> realCache = new TtlCache<>(Duration.ofMinutes(1), 10);
+
+    assertEquals("value of a #1", realCache.get("a", loader));
+    assertEquals("value of a #1", realCache.get("a", loader));
+  }
+}
@@ -0,0 +1,141 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class BufferedJobLogWriterTests {
+
+  @Test
+  public void writer_registers_with_flusher() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogFlusher flusher = mock(JobLogFlusher.class);
+
+    // act
+    BufferedJobLogWriter writer = new BufferedJobLogWriter(repository, 1L, 0L, 2, 10, flusher);
+
+    // assert
+    verify(flusher, times(1)).register(writer);
+  }
+
+  @Test
+  public void append_below_threshold_does_not_write_or_request_flush() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogFlusher flusher = mock(JobLogFlusher.class);
+    BufferedJobLogWriter writer = new BufferedJobLogWriter(repository, 1L, 0L, 2, 10, flusher);
+
+    // act
+    writer.append("one");
+
+    // assert
+    verify(repository, never()).saveAll(any());
+    verify(flusher, never()).requestFlush(any());
+  }
+
+  @Test
+  public void reaching_threshold_requests_one_background_flush() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogFlusher flusher = mock(JobLogFlusher.class);
+    BufferedJobLogWriter writer = new BufferedJobLogWriter(repository, 1L, 0L, 2, 10, flusher);
+
+    // act
+    writer.append("one");
+    writer.append("two");
+    writer.append("three");
+
+    // assert
+    verify(repository, never()).saveAll(any());
+    verify(flusher, times(1)).requestFlush(writer);
+  }
+
+  @Test
+  public void flush_writes_buffered_lines_and_allows_new_flush_requests() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogFlusher flusher = mock(JobLogFlusher.class);
+    BufferedJobLogWriter writer = new BufferedJobLogWriter(repository, 1L, 0L, 2, 10, flusher);
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    writer.append("one");
+    writer.append("two");
+    writer.flush();
+    writer.append("three");
+    writer.append("four");
+
+    // assert
+    verify(repository, times(1)).saveAll(captor.capture());
+    List<JobLogLine> lines = captor.getValue();
+    assertEquals(2, lines.size());
+    assertEquals(0L, lines.get(0).getLineNumber());
+    assertEquals("one", lines.get(0).getMessage());
+    assertEquals(1L, lines.get(1).getLineNumber());
+    assertEquals("two", lines.get(1).getMessage());
+    verify(flusher, times(2)).requestFlush(writer);
+  }
+
+  @Test
+  public void full_buffer_is_written_on_the_calling_thread() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogFlusher flusher = mock(JobLogFlusher.class);
+    BufferedJobLogWriter writer = new BufferedJobLogWriter(repository, 1L, 0L, 5, 2, flusher);
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    writer.append("one");
+    writer.append("two");
+    writer.append("three");
+
+    // assert
+    verify(repository, times(1)).saveAll(captor.capture());
+    assertEquals(2, captor.getValue().size());
+    assertEquals("one", captor.getValue().get(0).getMessage());
+    assertEquals("two", captor.getValue().get(1).getMessage());
+  }
+
+  @Test
+  public void close_unregisters_and_writes_remaining_lines() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogFlusher flusher = mock(JobLogFlusher.class);
+    BufferedJobLogWriter writer = new BufferedJobLogWriter(repository, 1L, 0L, 5, 10, flusher);
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    writer.append("one");
+    writer.close();
+
+    // assert
+    verify(flusher, times(1)).unregister(writer);
+    verify(repository, times(1)).saveAll(captor.capture());
+    assertEquals("one", captor.getValue().get(0).getMessage());
+  }
+
+  @Test
+  public void capacity_below_one_still_accepts_lines() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogFlusher flusher = mock(JobLogFlusher.class);
+    BufferedJobLogWriter writer = new BufferedJobLogWriter(repository, 1L, 0L, 5, 0, flusher);
+
+    // act
+    writer.append("one");
+    writer.append("two");
+
+    // assert
+    verify(repository, times(1)).saveAll(any());
+  }
+}
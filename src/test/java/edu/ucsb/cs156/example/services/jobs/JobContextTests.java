@@ -1,24 +1,149 @@
 package edu.ucsb.cs156.example.services.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
 import org.junit.jupiter.api.Test;
 
 
 public class JobContextTests {
   @Test
-  public void when_jobs_repository_is_null_does_not_save() throws Exception {
+  public void log_appends_message_to_log_writer() throws Exception {
 
     // arrange
 
     Job job1 = Job.builder().build();
-    JobContext ctx = new JobContext(null, job1);
+    JobLogWriter logWriter = mock(JobLogWriter.class);
+    JobContext ctx = new JobContext(logWriter, job1);
 
     // act
     ctx.log("This is a log message");
 
     // assert
-    assertEquals("This is a log message", job1.getLog());
+    verify(logWriter, times(1)).append("This is a log message");
+    assertEquals(21L, ctx.getLoggedBytes());
   }
 
+  @Test
+  public void logged_bytes_count_utf8_bytes_and_skip_null_messages() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().build();
+    JobContext ctx = new JobContext(mock(JobLogWriter.class), job1);
+
+    // act
+    ctx.log("é");
+    ctx.log(null);
+
+    // assert
+    assertEquals(2L, ctx.getLoggedBytes());
+  }
+
+  @Test
+  public void flush_flushes_log_writer() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().build();
+    JobLogWriter logWriter = mock(JobLogWriter.class);
+    JobContext ctx = new JobContext(logWriter, job1);
+
+    // act
+    ctx.flush();
+
+    // assert
+    verify(logWriter, times(1)).flush();
+  }
+
+  @Test
+  public void job_is_not_cancelled_until_cancel_is_called() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(3L).build();
+    JobContext ctx = new JobContext(mock(JobLogWriter.class), job1);
+
+    // act and assert
+    assertFalse(ctx.isCancelled());
+    ctx.checkCancelled();
+
+    ctx.cancel();
+
+    assertTrue(ctx.isCancelled());
+    JobCancelledException e = assertThrows(JobCancelledException.class, ctx::checkCancelled);
+    assertEquals("Job 3 was cancelled", e.getMessage());
+  }
+
+  @Test
+  public void progress_is_saved_right_away_and_then_at_most_once_per_interval() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(5L).build();
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    JobContext ctx = new JobContext(mock(JobLogWriter.class), job1, jobsRepository, 60000);
+
+    // act
+    ctx.progress(1, 10);
+    ctx.progress(2, 10);
+    ctx.progress(3, 10);
+
+    // assert
+    verify(jobsRepository, times(1)).updateProgressById(5L, 1L, 10L);
+    verify(jobsRepository, never()).updateProgressById(5L, 2L, 10L);
+    verify(jobsRepository, never()).updateProgressById(5L, 3L, 10L);
+    assertEquals(3L, ctx.getProgressDone());
+    assertEquals(10L, ctx.getProgressTotal());
+
+    // act
+    ctx.saveProgress();
+    ctx.saveProgress();
+
+    // assert
+    verify(jobsRepository, times(1)).updateProgressById(5L, 3L, 10L);
+  }
+
+  @Test
+  public void progress_is_saved_every_time_when_interval_is_zero() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(5L).build();
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    JobContext ctx = new JobContext(mock(JobLogWriter.class), job1, jobsRepository, 0);
+
+    // act
+    ctx.progress(1, 2);
+    ctx.progress(2, 2);
+
+    // assert
+    verify(jobsRepository, times(1)).updateProgressById(5L, 1L, 2L);
+    verify(jobsRepository, times(1)).updateProgressById(5L, 2L, 2L);
+  }
+
+  @Test
+  public void progress_without_repository_is_kept_in_memory() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(5L).build();
+    JobContext ctx = new JobContext(mock(JobLogWriter.class), job1);
+
+    // act
+    ctx.progress(2, 4);
+    ctx.saveProgress();
+
+    // assert
+    assertEquals(2L, ctx.getProgressDone());
+    assertEquals(4L, ctx.getProgressTotal());
+  }
 }
@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.config.JobExecutorConfig;
+import edu.ucsb.cs156.example.config.SchedulerConfig;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Runs the real schedulers to check that lease renewal does not wait for other tasks. */
+@SpringJUnitConfig(
+    classes = {
+      JobLeaseSchedulingTests.Scheduling.class,
+      SchedulerConfig.class,
+      JobExecutorConfig.class,
+      JobService.class
+    })
+@TestPropertySource(
+    properties = {
+      "app.scheduling.poolSize=1",
+      "app.jobs.nodeId=node-1",
+      "app.jobs.queue.pollIntervalMs=10",
+      "app.jobs.lease.heartbeatMs=50"
+    })
+@DirtiesContext
+public class JobLeaseSchedulingTests {
+
+  @Configuration
+  @EnableScheduling
+  static class Scheduling {}
+
+  @MockitoBean private JobsRepository jobsRepository;
+
+  @MockitoBean private JobLogLinesRepository jobLogLinesRepository;
+
+  @MockitoBean private CurrentUserService currentUserService;
+
+  @MockitoBean private JobLogFlusher jobLogFlusher;
+
+  @MockitoBean private JobMetrics jobMetrics;
+
+  @MockitoBean private ObjectMapper objectMapper;
+
+  @Autowired private JobService jobService;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  public void releasePoll() {
+    release.countDown();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Set<Long> heldJobIds() {
+    return (Set<Long>) ReflectionTestUtils.getField(jobService, "heldJobIds");
+  }
+
+  @Test
+  public void leases_are_renewed_while_the_shared_scheduler_is_blocked() throws Exception {
+    // arrange: this server holds a job, and the next poll of the queue blocks the only shared
+    // scheduler thread
+    heldJobIds().add(5L);
+    CountDownLatch blocked = new CountDownLatch(1);
+    when(jobsRepository.countRunningPerUser())
+        .thenAnswer(
+            invocation -> {
+              blocked.countDown();
+              release.await();
+              return List.of();
+            });
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+    // act
+    clearInvocations(jobsRepository);
+
+    // assert
+    verify(jobsRepository, timeout(5000).atLeast(2))
+        .renewLeases(eq("node-1"), eq(List.of(5L)), any());
+  }
+}
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+
+public class JobLogFlusherTests {
+
+  @Test
+  public void flushAll_flushes_registered_writers() {
+    // arrange
+    JobLogFlusher flusher = new JobLogFlusher();
+    JobLogWriter writer = mock(JobLogWriter.class);
+    flusher.register(writer);
+
+    // act
+    flusher.flushAll();
+
+    // assert
+    verify(writer, times(1)).flush();
+  }
+
+  @Test
+  public void flushAll_skips_unregistered_writers() {
+    // arrange
+    JobLogFlusher flusher = new JobLogFlusher();
+    JobLogWriter writer = mock(JobLogWriter.class);
+    flusher.register(writer);
+    flusher.unregister(writer);
+
+    // act
+    flusher.flushAll();
+
+    // assert
+    verify(writer, never()).flush();
+  }
+
+  @Test
+  public void flushAll_keeps_going_when_a_writer_fails() {
+    // arrange
+    JobLogFlusher flusher = new JobLogFlusher();
+    JobLogWriter failing = mock(JobLogWriter.class);
+    doThrow(new RuntimeException("database is down")).when(failing).flush();
+    flusher.register(failing);
+
+    // act
+    flusher.flushAll();
+
+    // assert
+    verify(failing, times(1)).flush();
+  }
+
+  @Test
+  public void requestFlush_flushes_writer_in_background() {
+    // arrange
+    JobLogFlusher flusher = new JobLogFlusher();
+    JobLogWriter writer = mock(JobLogWriter.class);
+
+    // act
+    flusher.requestFlush(writer);
+
+    // assert
+    await().atMost(1, SECONDS).untilAsserted(() -> verify(writer, times(1)).flush());
+  }
+
+  @Test
+  public void shutdown_flushes_registered_writers() {
+    // arrange
+    JobLogFlusher flusher = new JobLogFlusher();
+    JobLogWriter writer = mock(JobLogWriter.class);
+    flusher.register(writer);
+
+    // act
+    flusher.shutdown();
+
+    // assert
+    verify(writer, times(1)).flush();
+  }
+}
@@ -0,0 +1,222 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class JobLogStreamerTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @InjectMocks private JobLogStreamer jobLogStreamer;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobLogStreamer, "streamTimeoutMs", 60000L);
+    ReflectionTestUtils.setField(jobLogStreamer, "streamBatchSize", 2);
+    ReflectionTestUtils.setField(jobLogStreamer, "logStreamExecutor", new SyncTaskExecutor());
+  }
+
+  private JobLogLine line(long lineNumber, String message) {
+    return JobLogLine.builder().jobId(7L).lineNumber(lineNumber).message(message).build();
+  }
+
+  @Test
+  public void subscribe_registers_a_subscription() {
+    // act
+    SseEmitter emitter = jobLogStreamer.subscribe(7L, 0L);
+
+    // assert
+    assertNotNull(emitter);
+    assertEquals(60000L, emitter.getTimeout());
+    assertEquals(1, jobLogStreamer.getSubscriptionCount());
+  }
+
+  @Test
+  public void running_job_stays_subscribed_and_resumes_after_last_line_sent() {
+    // arrange
+    when(jobsRepository.findStatusById(7L)).thenReturn(Optional.of("running"));
+    when(jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            eq(7L), eq(3L), any()))
+        .thenReturn(List.of(line(3, "three"), line(4, "four")));
+    jobLogStreamer.subscribe(7L, 3L);
+
+    // act
+    jobLogStreamer.pushNewLines();
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    verify(jobLogLinesRepository, times(1))
+        .findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(7L, 3L, PageRequest.of(0, 2));
+    verify(jobLogLinesRepository, times(1))
+        .findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(7L, 5L, PageRequest.of(0, 2));
+    assertEquals(1, jobLogStreamer.getSubscriptionCount());
+  }
+
+  @Test
+  public void pending_job_stays_subscribed() {
+    // arrange
+    when(jobsRepository.findStatusById(7L)).thenReturn(Optional.of("pending"));
+    jobLogStreamer.subscribe(7L, 0L);
+
+    // act
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    assertEquals(1, jobLogStreamer.getSubscriptionCount());
+  }
+
+  @Test
+  public void finished_job_is_not_closed_while_a_full_batch_was_sent() {
+    // arrange
+    when(jobsRepository.findStatusById(7L)).thenReturn(Optional.of("complete"));
+    when(jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            eq(7L), eq(0L), any()))
+        .thenReturn(List.of(line(0, "zero"), line(1, "one")));
+    jobLogStreamer.subscribe(7L, 0L);
+
+    // act
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    assertEquals(1, jobLogStreamer.getSubscriptionCount());
+  }
+
+  @Test
+  public void finished_job_is_closed_once_all_lines_are_sent() {
+    // arrange
+    when(jobsRepository.findStatusById(7L)).thenReturn(Optional.of("complete"));
+    when(jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            eq(7L), eq(0L), any()))
+        .thenReturn(List.of(line(0, "zero")));
+    jobLogStreamer.subscribe(7L, 0L);
+
+    // act
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    assertEquals(0, jobLogStreamer.getSubscriptionCount());
+  }
+
+  @Test
+  public void deleted_job_is_closed() {
+    // arrange
+    when(jobsRepository.findStatusById(7L)).thenReturn(Optional.empty());
+    jobLogStreamer.subscribe(7L, 0L);
+
+    // act
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    assertEquals(0, jobLogStreamer.getSubscriptionCount());
+  }
+
+  @Test
+  public void subscription_is_dropped_when_sending_fails() {
+    // arrange
+    when(jobsRepository.findStatusById(7L)).thenReturn(Optional.of("running"));
+    when(jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            eq(7L), eq(0L), any()))
+        .thenReturn(List.of(line(0, "zero")));
+    SseEmitter emitter = jobLogStreamer.subscribe(7L, 0L);
+    emitter.complete();
+
+    // act
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    assertEquals(0, jobLogStreamer.getSubscriptionCount());
+  }
+
+  @Test
+  public void subscriber_still_receiving_a_batch_is_not_read_again() {
+    // arrange
+    List<Runnable> sends = new ArrayList<>();
+    TaskExecutor later = sends::add;
+    ReflectionTestUtils.setField(jobLogStreamer, "logStreamExecutor", later);
+    when(jobsRepository.findStatusById(7L)).thenReturn(Optional.of("running"));
+    when(jobLogLinesRepository.findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            eq(7L), eq(0L), any()))
+        .thenReturn(List.of(line(0, "zero")));
+    jobLogStreamer.subscribe(7L, 0L);
+
+    // act: the first batch has not been sent by the second tick
+    jobLogStreamer.pushNewLines();
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    assertEquals(1, sends.size());
+    verify(jobsRepository, times(1)).findStatusById(7L);
+
+    // act: once it has been sent, the next tick reads the following lines
+    sends.get(0).run();
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    verify(jobLogLinesRepository, times(1))
+        .findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(7L, 1L, PageRequest.of(0, 2));
+    assertEquals(2, sends.size());
+  }
+
+  @Test
+  public void batch_rejected_by_the_executor_is_read_again_at_the_next_tick() {
+    // arrange
+    TaskExecutor rejecting =
+        task -> {
+          throw new TaskRejectedException("shutting down");
+        };
+    ReflectionTestUtils.setField(jobLogStreamer, "logStreamExecutor", rejecting);
+    when(jobsRepository.findStatusById(7L)).thenReturn(Optional.of("running"));
+    jobLogStreamer.subscribe(7L, 0L);
+
+    // act
+    jobLogStreamer.pushNewLines();
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    verify(jobsRepository, times(2)).findStatusById(7L);
+    assertEquals(1, jobLogStreamer.getSubscriptionCount());
+  }
+
+  @Test
+  public void subscription_is_dropped_when_reading_fails() {
+    // arrange
+    when(jobsRepository.findStatusById(7L)).thenThrow(new IllegalStateException("no database"));
+    jobLogStreamer.subscribe(7L, 0L);
+
+    // act
+    jobLogStreamer.pushNewLines();
+
+    // assert
+    assertEquals(0, jobLogStreamer.getSubscriptionCount());
+    verify(jobLogLinesRepository, never())
+        .findByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(anyLong(), anyLong(), any());
+  }
+}
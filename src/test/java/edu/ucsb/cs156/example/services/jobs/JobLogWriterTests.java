@@ -0,0 +1,89 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class JobLogWriterTests {
+
+  @Test
+  public void lines_are_not_written_until_batch_is_full() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogWriter writer = new JobLogWriter(repository, 7L, 3);
+
+    // act
+    writer.append("one");
+    writer.append("two");
+
+    // assert
+    verify(repository, never()).saveAll(any());
+  }
+
+  @Test
+  public void full_batch_is_written_with_numbered_lines() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogWriter writer = new JobLogWriter(repository, 7L, 2);
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    writer.append("one");
+    writer.append("two");
+    writer.append("three");
+    writer.flush();
+
+    // assert
+    verify(repository, times(2)).saveAll(captor.capture());
+    List<List<JobLogLine>> batches = captor.getAllValues();
+
+    assertEquals(2, batches.get(0).size());
+    assertEquals(7L, batches.get(0).get(0).getJobId());
+    assertEquals(0L, batches.get(0).get(0).getLineNumber());
+    assertEquals("one", batches.get(0).get(0).getMessage());
+    assertEquals(1L, batches.get(0).get(1).getLineNumber());
+    assertEquals("two", batches.get(0).get(1).getMessage());
+
+    assertEquals(1, batches.get(1).size());
+    assertEquals(2L, batches.get(1).get(0).getLineNumber());
+    assertEquals("three", batches.get(1).get(0).getMessage());
+  }
+
+  @Test
+  public void flush_with_nothing_pending_does_not_write() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogWriter writer = new JobLogWriter(repository, 7L, 2);
+
+    // act
+    writer.flush();
+
+    // assert
+    verify(repository, never()).saveAll(any());
+  }
+
+  @Test
+  public void numbering_continues_from_first_line_number() {
+    // arrange
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobLogWriter writer = new JobLogWriter(repository, 7L, 12L, 5);
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    writer.append("resumed");
+    writer.close();
+
+    // assert
+    verify(repository, times(1)).saveAll(captor.capture());
+    assertEquals(12L, captor.getValue().get(0).getLineNumber());
+  }
+}
@@ -0,0 +1,91 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import edu.ucsb.cs156.example.jobs.TestJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobMetricsTests {
+
+  private MeterRegistry meterRegistry;
+
+  private JobMetrics jobMetrics;
+
+  @BeforeEach
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    jobMetrics = new JobMetrics();
+    ReflectionTestUtils.setField(jobMetrics, "meterRegistry", meterRegistry);
+  }
+
+  @Test
+  public void jobType_uses_class_name_for_named_classes_and_other_for_lambdas() {
+    JobContextConsumer lambda = ctx -> {};
+    JobContextConsumer anonymous =
+        new JobContextConsumer() {
+          @Override
+          public void accept(JobContext ctx) {}
+        };
+
+    assertEquals("TestJob", JobMetrics.jobType(TestJob.builder().build()));
+    assertEquals("other", JobMetrics.jobType(lambda));
+    assertEquals("other", JobMetrics.jobType(anonymous));
+  }
+
+  @Test
+  public void recordQueueWait_records_a_timer() {
+    jobMetrics.recordQueueWait(Duration.ofMillis(250));
+
+    assertEquals(1, meterRegistry.get("jobs.queue.wait").timer().count());
+    assertEquals(
+        250.0, meterRegistry.get("jobs.queue.wait").timer().totalTime(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void recordRun_records_duration_and_counts_finished_jobs() {
+    jobMetrics.recordRun("TestJob", "complete", TimeUnit.SECONDS.toNanos(2));
+    jobMetrics.recordRun("TestJob", "error", TimeUnit.SECONDS.toNanos(1));
+    jobMetrics.recordRun("TestJob", "complete", TimeUnit.SECONDS.toNanos(4));
+
+    assertEquals(
+        2,
+        meterRegistry
+            .get("jobs.run")
+            .tags("type", "TestJob", "status", "complete")
+            .timer()
+            .count());
+    assertEquals(
+        6.0,
+        meterRegistry
+            .get("jobs.run")
+            .tags("type", "TestJob", "status", "complete")
+            .timer()
+            .totalTime(TimeUnit.SECONDS));
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("jobs.finished")
+            .tags("type", "TestJob", "status", "error")
+            .counter()
+            .count());
+  }
+
+  @Test
+  public void recordLogBytes_adds_bytes_and_ignores_zero() {
+    jobMetrics.recordLogBytes("TestJob", 0);
+    assertNull(meterRegistry.find("jobs.log.bytes").counter());
+
+    jobMetrics.recordLogBytes("TestJob", 100);
+    jobMetrics.recordLogBytes("TestJob", 20);
+
+    assertEquals(
+        120.0, meterRegistry.get("jobs.log.bytes").tag("type", "TestJob").counter().count());
+  }
+}
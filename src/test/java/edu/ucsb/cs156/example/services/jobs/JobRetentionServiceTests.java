@@ -0,0 +1,142 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobRetentionServiceTests {
+
+  private static final List<String> STATUSES = List.of("complete", "error");
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @InjectMocks private JobRetentionService jobRetentionService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobRetentionService, "maxAgeDays", 30);
+    ReflectionTestUtils.setField(jobRetentionService, "maxCount", 100);
+    ReflectionTestUtils.setField(jobRetentionService, "statuses", STATUSES);
+    ReflectionTestUtils.setField(jobRetentionService, "batchSize", 2);
+  }
+
+  @Test
+  public void purgeOlderThan_deletes_in_batches_until_a_short_batch() {
+    // arrange
+    ZonedDateTime cutoff = ZonedDateTime.now();
+    when(jobsRepository.findIdsByStatusInAndUpdatedBefore(STATUSES, cutoff, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L))
+        .thenReturn(List.of(3L));
+    when(jobsRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+    when(jobsRepository.deleteByIdIn(List.of(3L))).thenReturn(1);
+
+    // act
+    int deleted = jobRetentionService.purgeOlderThan(cutoff);
+
+    // assert
+    assertEquals(3, deleted);
+    verify(jobLogLinesRepository, times(1)).deleteByJobIdIn(List.of(1L, 2L));
+    verify(jobLogLinesRepository, times(1)).deleteByJobIdIn(List.of(3L));
+    verify(jobsRepository, times(2))
+        .findIdsByStatusInAndUpdatedBefore(STATUSES, cutoff, PageRequest.of(0, 2));
+  }
+
+  @Test
+  public void purgeOlderThan_stops_when_no_ids_are_left() {
+    // arrange
+    ZonedDateTime cutoff = ZonedDateTime.now();
+    when(jobsRepository.findIdsByStatusInAndUpdatedBefore(STATUSES, cutoff, PageRequest.of(0, 2)))
+        .thenReturn(List.of(1L, 2L))
+        .thenReturn(List.of());
+    when(jobsRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+
+    // act
+    int deleted = jobRetentionService.purgeOlderThan(cutoff);
+
+    // assert
+    assertEquals(2, deleted);
+    verify(jobsRepository, times(1)).deleteByIdIn(any());
+  }
+
+  @Test
+  public void purgeAllButNewest_deletes_jobs_older_than_the_newest_ones() {
+    // arrange
+    when(jobsRepository.findIdsByStatusInNewestFirst(STATUSES, PageRequest.of(5, 1)))
+        .thenReturn(List.of(10L));
+    when(jobsRepository.findIdsByStatusInUpTo(STATUSES, 10L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(9L));
+    when(jobsRepository.deleteByIdIn(List.of(9L))).thenReturn(1);
+
+    // act
+    int deleted = jobRetentionService.purgeAllButNewest(5);
+
+    // assert
+    assertEquals(1, deleted);
+    verify(jobLogLinesRepository, times(1)).deleteByJobIdIn(List.of(9L));
+  }
+
+  @Test
+  public void purgeAllButNewest_does_nothing_when_there_are_few_jobs() {
+    // arrange
+    when(jobsRepository.findIdsByStatusInNewestFirst(STATUSES, PageRequest.of(5, 1)))
+        .thenReturn(List.of());
+
+    // act
+    int deleted = jobRetentionService.purgeAllButNewest(5);
+
+    // assert
+    assertEquals(0, deleted);
+    verify(jobsRepository, never()).findIdsByStatusInUpTo(any(), anyLong(), any());
+    verify(jobsRepository, never()).deleteByIdIn(any());
+  }
+
+  @Test
+  public void sweep_applies_both_rules() {
+    // arrange
+    when(jobsRepository.findIdsByStatusInAndUpdatedBefore(eq(STATUSES), any(), any()))
+        .thenReturn(List.of());
+    when(jobsRepository.findIdsByStatusInNewestFirst(STATUSES, PageRequest.of(100, 1)))
+        .thenReturn(List.of());
+
+    // act
+    jobRetentionService.sweep();
+
+    // assert
+    verify(jobsRepository, times(1)).findIdsByStatusInAndUpdatedBefore(eq(STATUSES), any(), any());
+    verify(jobsRepository, times(1)).findIdsByStatusInNewestFirst(STATUSES, PageRequest.of(100, 1));
+  }
+
+  @Test
+  public void sweep_skips_rules_that_are_turned_off() {
+    // arrange
+    ReflectionTestUtils.setField(jobRetentionService, "maxAgeDays", 0);
+    ReflectionTestUtils.setField(jobRetentionService, "maxCount", 0);
+
+    // act
+    jobRetentionService.sweep();
+
+    // assert
+    verify(jobsRepository, never()).findIdsByStatusInAndUpdatedBefore(any(), any(), any());
+    verify(jobsRepository, never()).findIdsByStatusInNewestFirst(any(), any());
+  }
+}
@@ -0,0 +1,151 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobSchedule;
+import edu.ucsb.cs156.example.repositories.JobSchedulesRepository;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobSchedulerTests {
+
+  private static final ZoneId ZONE = ZoneId.of("America/Los_Angeles");
+
+  // 03:00:30 on a Monday, just after the nightly run was due
+  private static final ZonedDateTime NOW = ZonedDateTime.of(2025, 5, 5, 3, 0, 30, 0, ZONE);
+
+  @Mock private JobSchedulesRepository jobSchedulesRepository;
+
+  @Mock private JobService jobService;
+
+  @Mock private JobScheduler self;
+
+  @InjectMocks private JobScheduler jobScheduler;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobScheduler, "self", self);
+    ReflectionTestUtils.setField(jobScheduler, "zone", "America/Los_Angeles");
+    ReflectionTestUtils.setField(jobScheduler, "misfireThresholdMs", 60000L);
+  }
+
+  private JobSchedule nightly(ZonedDateTime nextRunAt, String misfirePolicy) {
+    return JobSchedule.builder()
+        .id(3L)
+        .name("nightly")
+        .jobClass("edu.ucsb.cs156.example.jobs.TestJob")
+        .payload("{}")
+        .cron("0 0 3 * * *")
+        .misfirePolicy(misfirePolicy)
+        .enabled(true)
+        .nextRunAt(nextRunAt)
+        .build();
+  }
+
+  private void due(JobSchedule schedule) {
+    when(jobSchedulesRepository.findDueForUpdate(NOW, PageRequest.of(0, 1)))
+        .thenReturn(List.of(schedule));
+    when(jobSchedulesRepository.save(schedule)).thenReturn(schedule);
+    when(jobService.enqueue(schedule.getJobClass(), schedule.getPayload()))
+        .thenReturn(Job.builder().id(42L).status("pending").build());
+  }
+
+  @Test
+  public void fireNextDue_returns_empty_when_nothing_is_due() {
+    // arrange
+    when(jobSchedulesRepository.findDueForUpdate(NOW, PageRequest.of(0, 1))).thenReturn(List.of());
+
+    // act and assert
+    assertEquals(Optional.empty(), jobScheduler.fireNextDue(NOW));
+    verify(jobService, never()).enqueue(any(), any());
+  }
+
+  @Test
+  public void fireNextDue_queues_a_job_and_moves_to_next_run() {
+    // arrange
+    JobSchedule schedule = nightly(NOW.withSecond(0), JobScheduler.SKIP);
+    due(schedule);
+
+    // act
+    jobScheduler.fireNextDue(NOW);
+
+    // assert
+    verify(jobService, times(1)).enqueue("edu.ucsb.cs156.example.jobs.TestJob", "{}");
+    assertEquals(42L, schedule.getLastJobId());
+    assertEquals(NOW, schedule.getLastRunAt());
+    assertEquals(NOW.withSecond(0).plusDays(1), schedule.getNextRunAt());
+  }
+
+  @Test
+  public void misfired_run_once_schedule_runs_once() {
+    // arrange
+    JobSchedule schedule = nightly(NOW.withSecond(0).minusDays(3), JobScheduler.RUN_ONCE);
+    due(schedule);
+
+    // act
+    jobScheduler.fireNextDue(NOW);
+
+    // assert
+    verify(jobService, times(1)).enqueue(any(), any());
+    assertEquals(NOW.withSecond(0).plusDays(1), schedule.getNextRunAt());
+  }
+
+  @Test
+  public void misfired_skip_schedule_is_not_run() {
+    // arrange
+    JobSchedule schedule = nightly(NOW.withSecond(0).minusDays(3), JobScheduler.SKIP);
+    due(schedule);
+
+    // act
+    jobScheduler.fireNextDue(NOW);
+
+    // assert
+    verify(jobService, never()).enqueue(any(), any());
+    assertNull(schedule.getLastJobId());
+    assertEquals(NOW.withSecond(0).plusDays(1), schedule.getNextRunAt());
+  }
+
+  @Test
+  public void fireDueSchedules_fires_until_nothing_is_due() {
+    // arrange
+    when(self.fireNextDue(any()))
+        .thenReturn(Optional.of(nightly(NOW, JobScheduler.RUN_ONCE)))
+        .thenReturn(Optional.of(nightly(NOW, JobScheduler.RUN_ONCE)))
+        .thenReturn(Optional.empty());
+
+    // act
+    jobScheduler.fireDueSchedules();
+
+    // assert
+    verify(self, times(3)).fireNextDue(any());
+  }
+
+  @Test
+  public void nextRun_uses_the_configured_zone() {
+    // arrange
+    ZonedDateTime utc = NOW.withZoneSameInstant(ZoneId.of("UTC"));
+
+    // act
+    ZonedDateTime next = jobScheduler.nextRun("0 0 3 * * *", utc);
+
+    // assert
+    assertEquals(NOW.withSecond(0).plusDays(1), next);
+  }
+}
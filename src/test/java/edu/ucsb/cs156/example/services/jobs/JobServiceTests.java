@@ -0,0 +1,851 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.PendingJobCandidate;
+import edu.ucsb.cs156.example.models.UserJobCount;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobServiceTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock private JobLogFlusher jobLogFlusher;
+
+  @Mock private CurrentUserService currentUserService;
+
+  @Mock private JobMetrics jobMetrics;
+
+  @Mock private ThreadPoolTaskExecutor jobExecutor;
+
+  @Spy private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Mock private JobService self;
+
+  @Mock private AutowireCapableBeanFactory beanFactory;
+
+  @InjectMocks private JobService jobService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobService, "logBatchSize", 50);
+    ReflectionTestUtils.setField(jobService, "logBufferCapacity", 100);
+    ReflectionTestUtils.setField(jobService, "self", self);
+    ReflectionTestUtils.setField(jobService, "nodeId", "node-1");
+    ReflectionTestUtils.setField(jobService, "leaseDurationMs", 60000L);
+    ReflectionTestUtils.setField(jobService, "interactiveWeight", 3L);
+    ReflectionTestUtils.setField(jobService, "batchWeight", 1L);
+  }
+
+  private void verifyFinished(long jobId, String status) {
+    verify(jobsRepository, times(1))
+        .finishById(eq(jobId), eq("node-1"), eq(status), anyBoolean(), any());
+  }
+
+  /** Jackson cannot serialize a class without properties. */
+  public static class EmptyJob implements JobContextConsumer {
+    @Override
+    public void accept(JobContext ctx) {}
+  }
+
+  private Job storedTestJob() throws Exception {
+    return Job.builder()
+        .id(9L)
+        .status("running")
+        .jobClass(TestJob.class.getName())
+        .payload(objectMapper.writeValueAsString(TestJob.builder().sleepMs(5).build()))
+        .build();
+  }
+
+  @Test
+  public void buffered_job_logs_are_flushed_when_job_completes() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", true);
+    Job job = Job.builder().id(5L).status("running").build();
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    jobService.runJobAsync(job, ctx -> ctx.log("hello"));
+
+    // assert
+    assertEquals("complete", job.getStatus());
+    verify(jobLogFlusher, times(1)).register(any(BufferedJobLogWriter.class));
+    verify(jobLogFlusher, times(1)).unregister(any(BufferedJobLogWriter.class));
+    verify(jobLogLinesRepository, times(1)).saveAll(captor.capture());
+    assertEquals("hello", captor.getValue().get(0).getMessage());
+    verifyFinished(5L, "complete");
+    verify(jobMetrics, never()).recordQueueWait(any());
+    verify(jobMetrics, times(1)).recordRun(eq("other"), eq("complete"), anyLong());
+    verify(jobMetrics, times(1)).recordLogBytes("other", 5L);
+  }
+
+  @Test
+  public void latest_progress_is_saved_when_job_ends() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    ReflectionTestUtils.setField(jobService, "progressIntervalMs", 60000L);
+    Job job = Job.builder().id(5L).status("running").build();
+
+    // act
+    jobService.runJobAsync(
+        job,
+        ctx -> {
+          ctx.progress(1, 4);
+          ctx.progress(2, 4);
+          ctx.progress(3, 4);
+        });
+
+    // assert
+    verify(jobsRepository, times(1)).updateProgressById(5L, 1L, 4L);
+    verify(jobsRepository, never()).updateProgressById(5L, 2L, 4L);
+    verify(jobsRepository, times(1)).updateProgressById(5L, 3L, 4L);
+    verifyFinished(5L, "complete");
+  }
+
+  @Test
+  public void queue_wait_is_recorded_for_jobs_with_a_creation_time() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    Job job =
+        Job.builder()
+            .id(5L)
+            .status("running")
+            .createdAt(ZonedDateTime.now().minusSeconds(3))
+            .build();
+
+    // act
+    jobService.runJobAsync(job, ctx -> {});
+
+    // assert
+    verify(jobMetrics, times(1)).recordQueueWait(any());
+    verify(jobMetrics, times(1)).recordLogBytes("other", 0L);
+  }
+
+  @Test
+  public void buffered_job_logs_are_flushed_when_job_fails() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", true);
+    Job job = Job.builder().id(5L).status("running").build();
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    jobService.runJobAsync(
+        job,
+        ctx -> {
+          ctx.log("hello");
+          throw new Exception("boom");
+        });
+
+    // assert
+    assertEquals("error", job.getStatus());
+    verify(jobLogLinesRepository, times(1)).saveAll(captor.capture());
+    assertEquals(2, captor.getValue().size());
+    assertEquals("boom", captor.getValue().get(1).getMessage());
+    verifyFinished(5L, "error");
+    verify(jobMetrics, times(1)).recordRun(eq("other"), eq("error"), anyLong());
+  }
+
+  @Test
+  public void unbuffered_job_logs_are_written_without_the_flusher() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    Job job = Job.builder().id(5L).status("running").build();
+
+    // act
+    jobService.runJobAsync(job, ctx -> ctx.log("hello"));
+
+    // assert
+    assertEquals("complete", job.getStatus());
+    verify(jobLogFlusher, never()).register(any());
+    verify(jobLogLinesRepository, times(1)).saveAll(any());
+    verifyFinished(5L, "complete");
+  }
+
+  @Test
+  public void job_is_rejected_when_executor_is_full() {
+    // arrange
+    User user = User.builder().id(1L).build();
+    when(currentUserService.getUser()).thenReturn(user);
+    JobContextConsumer jobFunction = ctx -> ctx.log("never runs");
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(1);
+    doThrow(new TaskRejectedException("queue is full"))
+        .when(self)
+        .runJobAsync(any(Job.class), any(JobContextConsumer.class));
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    Job job = jobService.runAsJob(jobFunction);
+
+    // assert
+    assertEquals("rejected", job.getStatus());
+    assertEquals(user, job.getCreatedBy());
+    verify(jobsRepository, times(2)).save(job);
+    verify(jobLogLinesRepository, times(1)).saveAll(captor.capture());
+    assertEquals(
+        "Job rejected: too many jobs are already running or waiting to run",
+        captor.getValue().get(0).getMessage());
+    verify(jobMetrics, times(1)).recordFinished("other", "rejected");
+  }
+
+  @Test
+  public void job_cancelled_while_waiting_does_not_run() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    Job job = Job.builder().id(5L).status("running").build();
+    when(jobsRepository.findCancelRequestedById(5L)).thenReturn(Optional.of(true));
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    jobService.runJobAsync(job, ctx -> ctx.log("never runs"));
+
+    // assert
+    assertEquals("cancelled", job.getStatus());
+    assertTrue(job.isCancelRequested());
+    verify(jobLogLinesRepository, times(1)).saveAll(captor.capture());
+    assertEquals(1, captor.getValue().size());
+    assertEquals("Job cancelled", captor.getValue().get(0).getMessage());
+    verifyFinished(5L, "cancelled");
+  }
+
+  @Test
+  public void cancelJob_cancels_a_pending_job_right_away() {
+    // arrange
+    ZonedDateTime before = ZonedDateTime.now();
+    when(jobsRepository.cancelPendingById(eq(5L), any())).thenReturn(1);
+
+    // act and assert
+    assertTrue(jobService.cancelJob(5L));
+    verify(jobsRepository, never()).requestCancelById(anyLong());
+    // retention counts from the cancel, not from when the job was queued
+    verify(jobsRepository).cancelPendingById(eq(5L), argThat(now -> !now.isBefore(before)));
+  }
+
+  @Test
+  public void cancelJob_returns_false_when_job_is_not_running() {
+    // arrange
+    when(jobsRepository.requestCancelById(5L)).thenReturn(0);
+
+    // act and assert
+    assertFalse(jobService.cancelJob(5L));
+  }
+
+  @Test
+  public void cancelJob_returns_true_when_job_is_running_elsewhere() {
+    // arrange
+    when(jobsRepository.requestCancelById(5L)).thenReturn(1);
+
+    // act and assert
+    assertTrue(jobService.cancelJob(5L));
+  }
+
+  @Test
+  public void cancelJob_interrupts_a_running_job() throws Exception {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    Job job = Job.builder().id(5L).status("running").build();
+    when(jobsRepository.requestCancelById(5L)).thenReturn(1);
+    CountDownLatch started = new CountDownLatch(1);
+    Thread worker =
+        new Thread(
+            () ->
+                jobService.runJobAsync(
+                    job,
+                    ctx -> {
+                      started.countDown();
+                      Thread.sleep(60000);
+                    }));
+    worker.start();
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    // act
+    boolean cancelled = jobService.cancelJob(5L);
+    worker.join(10000);
+
+    // assert
+    assertTrue(cancelled);
+    assertFalse(worker.isAlive());
+    assertEquals("cancelled", job.getStatus());
+    verifyFinished(5L, "cancelled");
+  }
+
+  @Test
+  public void cancel_interrupts_a_job_that_is_still_running() {
+    // arrange
+    JobContext context = mock(JobContext.class);
+    JobService.RunningJob running = new JobService.RunningJob(context, Thread.currentThread());
+
+    // act
+    running.cancel();
+
+    // assert
+    assertTrue(Thread.interrupted());
+    verify(context, times(1)).cancel();
+  }
+
+  @Test
+  public void cancel_arriving_after_a_job_finished_does_not_interrupt_its_thread() {
+    // arrange
+    JobContext context = mock(JobContext.class);
+    JobService.RunningJob running = new JobService.RunningJob(context, Thread.currentThread());
+    running.finish();
+
+    // act: the pooled thread may already be running another job
+    running.cancel();
+
+    // assert
+    assertFalse(Thread.interrupted());
+    verify(context, never()).cancel();
+  }
+
+  @Test
+  public void finish_clears_an_interrupt_that_arrived_while_the_job_ran() {
+    // arrange
+    JobService.RunningJob running =
+        new JobService.RunningJob(mock(JobContext.class), Thread.currentThread());
+    running.cancel();
+
+    // act
+    running.finish();
+
+    // assert
+    assertFalse(Thread.interrupted());
+  }
+
+  @Test
+  public void runAsJob_stores_and_starts_a_serializable_job() {
+    // arrange
+    TestJob testJob = TestJob.builder().fail(false).sleepMs(10).build();
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(1);
+
+    // act
+    Job job = jobService.runAsJob(testJob);
+
+    // assert
+    assertEquals("running", job.getStatus());
+    assertEquals("interactive", job.getLane());
+    assertEquals(null, job.getQueuePosition());
+    assertEquals(TestJob.class.getName(), job.getJobClass());
+    assertEquals("{\"fail\":false,\"sleepMs\":10}", job.getPayload());
+    verify(self, times(1)).runJobAsync(job, testJob);
+  }
+
+  @Test
+  public void runAsJob_leaves_job_alone_when_someone_else_claimed_it() {
+    // arrange
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(0);
+
+    // act
+    Job job = jobService.runAsJob(TestJob.builder().build());
+
+    // assert
+    assertEquals("pending", job.getStatus());
+    verify(self, never()).runJobAsync(any(), any());
+  }
+
+  @Test
+  public void runAsJob_keeps_stored_job_in_queue_when_executor_is_full() {
+    // arrange
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(1);
+    doThrow(new TaskRejectedException("queue is full"))
+        .when(self)
+        .runJobAsync(any(Job.class), any(JobContextConsumer.class));
+
+    // act
+    Job job = jobService.runAsJob(TestJob.builder().build());
+
+    // assert
+    assertEquals("pending", job.getStatus());
+    assertEquals(1L, job.getQueuePosition());
+    verify(jobsRepository, times(1)).releaseById(0L);
+    verify(jobLogLinesRepository, never()).saveAll(any());
+  }
+
+  @Test
+  public void runAsJob_leaves_stored_job_for_any_server_when_no_thread_is_idle() {
+    // arrange
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobExecutor.getActiveCount()).thenReturn(1);
+    when(jobsRepository.countPendingAhead("batch", 0L)).thenReturn(2L);
+
+    // act
+    Job job = jobService.runAsJob(TestJob.builder().build(), "batch");
+
+    // assert
+    assertEquals("pending", job.getStatus());
+    assertEquals("batch", job.getLane());
+    assertEquals(3L, job.getQueuePosition());
+    verify(jobsRepository, never()).claimById(anyLong(), any(), any());
+  }
+
+  @Test
+  public void withQueuePosition_counts_only_pending_jobs() {
+    // arrange
+    Job running = Job.builder().id(3L).status("running").lane("interactive").build();
+    Job legacy = Job.builder().id(4L).status("pending").build();
+    when(jobsRepository.countPendingAhead("interactive", 4L)).thenReturn(0L);
+
+    // act
+    jobService.withQueuePosition(running);
+    jobService.withQueuePosition(legacy);
+
+    // assert
+    assertEquals(null, running.getQueuePosition());
+    assertEquals(1L, legacy.getQueuePosition());
+    verify(jobsRepository, never()).countPendingAhead(any(), eq(3L));
+  }
+
+  @Test
+  public void runAsJob_does_not_store_jobs_that_cannot_be_serialized() {
+    // arrange
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(1);
+
+    // act
+    Job job = jobService.runAsJob(new EmptyJob());
+
+    // assert
+    assertEquals(null, job.getJobClass());
+    assertEquals(null, job.getPayload());
+    verify(self, times(1)).runJobAsync(eq(job), any(EmptyJob.class));
+  }
+
+  @Test
+  public void pollQueue_starts_stored_jobs_while_threads_are_idle() throws Exception {
+    // arrange
+    Job stored = storedTestJob();
+    when(jobExecutor.getMaxPoolSize()).thenReturn(2);
+    when(self.claimNextJob()).thenReturn(Optional.of(stored)).thenReturn(Optional.empty());
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    verify(self, times(2)).claimNextJob();
+    ArgumentCaptor<JobContextConsumer> captor = ArgumentCaptor.forClass(JobContextConsumer.class);
+    verify(self, times(1)).runJobAsync(eq(stored), captor.capture());
+    assertEquals(TestJob.builder().sleepMs(5).build(), captor.getValue());
+  }
+
+  @Test
+  public void pollQueue_does_not_claim_jobs_when_executor_is_busy() {
+    // arrange
+    when(jobExecutor.getMaxPoolSize()).thenReturn(2);
+    when(jobExecutor.getActiveCount()).thenReturn(1);
+    when(jobExecutor.getQueueSize()).thenReturn(1);
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    verify(self, never()).claimNextJob();
+  }
+
+  @Test
+  public void pollQueue_releases_job_when_executor_rejects_it() throws Exception {
+    // arrange
+    Job stored = storedTestJob();
+    when(jobExecutor.getMaxPoolSize()).thenReturn(2);
+    when(self.claimNextJob()).thenReturn(Optional.of(stored));
+    doThrow(new TaskRejectedException("queue is full"))
+        .when(self)
+        .runJobAsync(any(Job.class), any(JobContextConsumer.class));
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    verify(self, times(1)).claimNextJob();
+    verify(jobsRepository, times(1)).releaseById(9L);
+  }
+
+  @Test
+  public void pollQueue_fails_jobs_that_cannot_be_loaded() {
+    // arrange
+    Job stored =
+        Job.builder()
+            .id(9L)
+            .status("running")
+            .jobClass("java.lang.String")
+            .payload("\"x\"")
+            .build();
+    when(jobExecutor.getMaxPoolSize()).thenReturn(2);
+    when(jobLogLinesRepository.findMaxLineNumberByJobId(9L)).thenReturn(Optional.of(3L));
+    when(self.claimNextJob()).thenReturn(Optional.of(stored)).thenReturn(Optional.empty());
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    assertEquals("error", stored.getStatus());
+    verify(self, never()).runJobAsync(any(), any());
+    verify(jobLogLinesRepository, times(1)).saveAll(captor.capture());
+    assertEquals(4L, captor.getValue().get(0).getLineNumber());
+    assertEquals(
+        "Job could not be loaded: java.lang.String is not a JobContextConsumer",
+        captor.getValue().get(0).getMessage());
+    verify(jobsRepository, times(1)).save(stored);
+  }
+
+  private static PendingJobCandidate candidate(Long userId, long jobId) {
+    return new PendingJobCandidate() {
+      @Override
+      public Long getUserId() {
+        return userId;
+      }
+
+      @Override
+      public long getJobId() {
+        return jobId;
+      }
+    };
+  }
+
+  private static UserJobCount runningCount(Long userId, long count) {
+    return new UserJobCount() {
+      @Override
+      public Long getUserId() {
+        return userId;
+      }
+
+      @Override
+      public long getCount() {
+        return count;
+      }
+    };
+  }
+
+  private void lockAnyPendingJob() {
+    when(jobsRepository.findPendingByIdForUpdate(anyLong()))
+        .thenAnswer(i -> Optional.of(Job.builder().id(i.getArgument(0)).status("pending").build()));
+    when(jobsRepository.save(any(Job.class))).thenAnswer(i -> i.getArgument(0));
+  }
+
+  @Test
+  public void claimNextJob_returns_empty_when_queue_is_empty() {
+    // act and assert
+    assertEquals(Optional.empty(), jobService.claimNextJob());
+    verify(jobsRepository, times(1)).findOldestPendingPerUser("interactive");
+    verify(jobsRepository, times(1)).findOldestPendingPerUser("batch");
+  }
+
+  @Test
+  public void claimNextJob_marks_next_pending_job_running() {
+    // arrange
+    Job pending = Job.builder().id(9L).status("pending").build();
+    when(jobsRepository.findOldestPendingPerUser("interactive"))
+        .thenReturn(List.of(candidate(1L, 9L)));
+    when(jobsRepository.findPendingByIdForUpdate(9L)).thenReturn(Optional.of(pending));
+    when(jobsRepository.save(pending)).thenReturn(pending);
+
+    // act
+    Optional<Job> claimed = jobService.claimNextJob();
+
+    // assert
+    assertEquals(Optional.of(pending), claimed);
+    assertEquals("running", pending.getStatus());
+    assertEquals("node-1", pending.getLeaseOwner());
+    assertTrue(pending.getLeaseExpiresAt().isAfter(ZonedDateTime.now().plusSeconds(50)));
+  }
+
+  @Test
+  public void claimNextJob_prefers_users_with_fewer_running_jobs() {
+    // arrange
+    when(jobsRepository.countRunningPerUser())
+        .thenReturn(List.of(runningCount(1L, 5L), runningCount(null, 1L)));
+    when(jobsRepository.findOldestPendingPerUser("interactive"))
+        .thenReturn(List.of(candidate(1L, 3L), candidate(null, 4L), candidate(2L, 6L)));
+    lockAnyPendingJob();
+
+    // act
+    Optional<Job> claimed = jobService.claimNextJob();
+
+    // assert
+    assertEquals(6L, claimed.get().getId());
+    verify(jobsRepository, never()).findPendingByIdForUpdate(3L);
+  }
+
+  @Test
+  public void claimNextJob_skips_jobs_locked_by_another_server() {
+    // arrange
+    Job pending = Job.builder().id(5L).status("pending").build();
+    when(jobsRepository.findOldestPendingPerUser("interactive"))
+        .thenReturn(List.of(candidate(2L, 5L), candidate(1L, 3L)));
+    when(jobsRepository.findPendingByIdForUpdate(3L)).thenReturn(Optional.empty());
+    when(jobsRepository.findPendingByIdForUpdate(5L)).thenReturn(Optional.of(pending));
+    when(jobsRepository.save(pending)).thenReturn(pending);
+
+    // act
+    Optional<Job> claimed = jobService.claimNextJob();
+
+    // assert
+    assertEquals(Optional.of(pending), claimed);
+    verify(jobsRepository, times(1)).findPendingByIdForUpdate(3L);
+  }
+
+  @Test
+  public void claimNextJob_takes_from_lanes_by_weight() {
+    // arrange
+    when(jobsRepository.findOldestPendingPerUser("interactive"))
+        .thenReturn(List.of(candidate(1L, 10L)));
+    when(jobsRepository.findOldestPendingPerUser("batch")).thenReturn(List.of(candidate(null, 2L)));
+    lockAnyPendingJob();
+
+    // act
+    List<Long> claimed = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      claimed.add(jobService.claimNextJob().get().getId());
+    }
+
+    // assert
+    assertEquals(List.of(10L, 10L, 10L, 2L, 10L, 10L, 10L, 2L), claimed);
+  }
+
+  @Test
+  public void claimNextJob_takes_from_the_other_lane_when_one_is_empty() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "interactiveWeight", 0L);
+    when(jobsRepository.findOldestPendingPerUser("interactive"))
+        .thenReturn(List.of(candidate(1L, 10L)));
+    lockAnyPendingJob();
+
+    // act and assert
+    assertEquals(10L, jobService.claimNextJob().get().getId());
+    verify(jobsRepository, times(1)).findOldestPendingPerUser("batch");
+  }
+
+  @Test
+  public void maintainLeases_requeues_expired_jobs_and_renews_nothing_when_idle() {
+    // arrange
+    when(jobsRepository.requeueExpired(any())).thenReturn(2).thenReturn(0).thenReturn(0);
+    when(jobsRepository.failExpired(any())).thenReturn(0).thenReturn(1).thenReturn(0);
+    when(jobsRepository.findCancelRequestedIdsByLeaseOwner("node-1")).thenReturn(List.of(8L));
+
+    // act
+    jobService.maintainLeases();
+    jobService.maintainLeases();
+    jobService.maintainLeases();
+
+    // assert
+    verify(jobsRepository, never()).renewLeases(any(), any(), any());
+    verify(jobsRepository, times(3)).requeueExpired(any());
+    verify(jobsRepository, times(3)).failExpired(any());
+  }
+
+  @Test
+  public void maintainLeases_renews_only_the_jobs_this_server_holds() throws Exception {
+    // arrange: one job started by runAsJob and one claimed from the queue
+    when(jobExecutor.getMaxPoolSize()).thenReturn(2);
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(1);
+    jobService.runAsJob(new EmptyJob());
+    when(self.claimNextJob()).thenReturn(Optional.of(storedTestJob())).thenReturn(Optional.empty());
+    jobService.pollQueue();
+
+    // act
+    jobService.maintainLeases();
+
+    // assert
+    verify(jobsRepository, times(1))
+        .renewLeases(eq("node-1"), argThat(ids -> Set.copyOf(ids).equals(Set.of(0L, 9L))), any());
+  }
+
+  @Test
+  public void lease_of_a_job_that_ends_without_saving_its_status_is_not_renewed() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(1);
+    Job job = jobService.runAsJob(new EmptyJob());
+    when(jobsRepository.finishById(anyLong(), any(), any(), anyBoolean(), any()))
+        .thenThrow(new IllegalStateException("database is down"));
+
+    // act: the status cannot be saved, so the job is left with status "running"
+    assertThrows(IllegalStateException.class, () -> jobService.runJobAsync(job, new EmptyJob()));
+    jobService.maintainLeases();
+
+    // assert: the lease expires and requeueExpired recovers the job
+    verify(jobsRepository, never()).renewLeases(any(), any(), any());
+  }
+
+  @Test
+  public void job_that_throws_an_error_is_saved_as_failed_and_the_error_is_rethrown() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(1);
+    Job job = jobService.runAsJob(new EmptyJob());
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    assertThrows(
+        StackOverflowError.class,
+        () ->
+            jobService.runJobAsync(
+                job,
+                ctx -> {
+                  throw new StackOverflowError();
+                }));
+    jobService.maintainLeases();
+
+    // assert: the job is not left "running", so it is not requeued and retried
+    assertEquals("error", job.getStatus());
+    verifyFinished(0L, "error");
+    verify(jobLogLinesRepository, times(1)).saveAll(captor.capture());
+    assertEquals("java.lang.StackOverflowError", captor.getValue().get(0).getMessage());
+    verify(jobsRepository, never()).renewLeases(any(), any(), any());
+  }
+
+  @Test
+  public void lease_of_a_job_the_executor_rejected_is_not_renewed() {
+    // arrange
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobsRepository.claimById(eq(0L), eq("node-1"), any())).thenReturn(1);
+    doThrow(new TaskRejectedException("full")).when(self).runJobAsync(any(), any());
+    jobService.runAsJob(TestJob.builder().build());
+
+    // act
+    jobService.maintainLeases();
+
+    // assert
+    verify(jobsRepository, times(1)).releaseById(0L);
+    verify(jobsRepository, never()).renewLeases(any(), any(), any());
+  }
+
+  @Test
+  public void maintainLeases_cancels_jobs_cancelled_through_another_server() throws Exception {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    Job job = Job.builder().id(5L).status("running").build();
+    when(jobsRepository.findCancelRequestedIdsByLeaseOwner("node-1")).thenReturn(List.of(5L));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean sawCancel = new AtomicBoolean(false);
+    Thread worker =
+        new Thread(
+            () ->
+                jobService.runJobAsync(
+                    job,
+                    ctx -> {
+                      started.countDown();
+                      // ignores interrupts, so the job is still running at the second heartbeat
+                      while (release.getCount() > 0) {
+                        Thread.onSpinWait();
+                      }
+                      sawCancel.set(ctx.isCancelled());
+                    }));
+    worker.start();
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    // act
+    jobService.maintainLeases();
+    jobService.maintainLeases();
+    release.countDown();
+    worker.join(10000);
+
+    // assert
+    assertTrue(sawCancel.get());
+    assertFalse(worker.isAlive());
+  }
+
+  @Test
+  public void job_result_is_saved_while_lease_is_held() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    Job job = Job.builder().id(5L).status("running").build();
+    when(jobsRepository.finishById(anyLong(), any(), any(), anyBoolean(), any())).thenReturn(1);
+
+    // act
+    jobService.runJobAsync(job, ctx -> {});
+
+    // assert
+    verifyFinished(5L, "complete");
+    verify(jobMetrics, times(1)).recordRun(eq("other"), eq("complete"), anyLong());
+  }
+
+  @Test
+  public void resumed_job_continues_log_numbering() {
+    // arrange
+    ReflectionTestUtils.setField(jobService, "bufferedLogs", false);
+    Job job = Job.builder().id(5L).status("running").build();
+    when(jobLogLinesRepository.findMaxLineNumberByJobId(5L)).thenReturn(Optional.of(6L));
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+
+    // act
+    jobService.runJobAsync(job, ctx -> ctx.log("again"));
+
+    // assert
+    verify(jobLogLinesRepository, times(1)).saveAll(captor.capture());
+    assertEquals(7L, captor.getValue().get(0).getLineNumber());
+  }
+
+  @Test
+  public void enqueue_saves_a_pending_stored_job() {
+    // arrange
+    when(jobsRepository.save(any(Job.class))).thenAnswer(i -> i.getArgument(0));
+
+    // act
+    Job job = jobService.enqueue(TestJob.class.getName(), "{}");
+
+    // assert
+    assertEquals("pending", job.getStatus());
+    assertEquals("batch", job.getLane());
+    assertEquals(TestJob.class.getName(), job.getJobClass());
+    assertEquals("{}", job.getPayload());
+    verify(self, never()).runJobAsync(any(), any());
+  }
+
+  @Test
+  public void loadJob_reads_job_from_payload() throws Exception {
+    // act
+    JobContextConsumer job = jobService.loadJob(TestJob.class.getName(), "{\"sleepMs\":7}");
+
+    // assert
+    assertEquals(TestJob.builder().sleepMs(7).build(), job);
+    verify(beanFactory, times(1)).autowireBean(job);
+  }
+}